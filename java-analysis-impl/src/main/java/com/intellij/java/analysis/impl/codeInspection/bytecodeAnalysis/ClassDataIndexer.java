@@ -3,7 +3,9 @@ package com.intellij.java.analysis.impl.codeInspection.bytecodeAnalysis;
 
 import com.intellij.java.analysis.impl.codeInspection.bytecodeAnalysis.asm.*;
 import consulo.application.ApplicationManager;
+import consulo.application.progress.ProgressIndicator;
 import consulo.application.progress.ProgressManager;
+import consulo.application.util.registry.Registry;
 import consulo.component.ProcessCanceledException;
 import consulo.internal.org.objectweb.asm.*;
 import consulo.internal.org.objectweb.asm.tree.MethodNode;
@@ -25,6 +27,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.*;
 import java.util.stream.Stream;
@@ -43,6 +46,7 @@ import static com.intellij.java.analysis.impl.codeInspection.bytecodeAnalysis.Pr
  */
 public class ClassDataIndexer implements BiFunction<Project, VirtualFile,Map<HMember, Equations>> {
   static final String STRING_CONCAT_FACTORY = "java/lang/invoke/StringConcatFactory";
+  public static final String PARALLEL_INDEXING = "java.annotations.inference.parallel.indexing";
 
   public static final Consumer<Map<HMember, Equations>> ourIndexSizeStatistics =
       ApplicationManager.getApplication().isUnitTestMode() ? new ClassDataIndexerStatistics() : map -> {
@@ -54,7 +58,7 @@ public class ClassDataIndexer implements BiFunction<Project, VirtualFile,Map<HMe
 
   private static final int VERSION = 12; // change when inference algorithm changes
   private static final int VERSION_MODIFIER = HardCodedPurity.AGGRESSIVE_HARDCODED_PURITY ? 1 : 0;
-  private static final int FINAL_VERSION = VERSION * 2 + VERSION_MODIFIER;
+  static final int FINAL_VERSION = VERSION * 2 + VERSION_MODIFIER;
   private static final VirtualFileGist<Map<HMember, Equations>> ourGist = GistManager.getInstance().newVirtualFileGist(
       "BytecodeAnalysisIndex", FINAL_VERSION, new BytecodeAnalysisIndex.EquationsExternalizer(), new ClassDataIndexer());
 
@@ -158,15 +162,15 @@ public class ClassDataIndexer implements BiFunction<Project, VirtualFile,Map<HMe
   }
 
   public static Map<EKey, Equations> processClass(final ClassReader classReader, final String presentableUrl) {
+    return processClass(classReader, presentableUrl, Registry.is(PARALLEL_INDEXING, false));
+  }
 
-    // It is OK to share pending states, actions and results for analyses.
-    // Analyses are designed in such a way that they first write to states/actions/results and then read only those portion
-    // of states/actions/results which were written by the current pass of the analysis.
-    // Since states/actions/results are quite expensive to create (32K array) for each analysis, we create them once per class analysis.
-    final State[] sharedPendingStates = new State[Analysis.STEPS_LIMIT];
-    final PendingAction[] sharedPendingActions = new PendingAction[Analysis.STEPS_LIMIT];
-    final PResults.PResult[] sharedResults = new PResults.PResult[Analysis.STEPS_LIMIT];
-    final Map<EKey, Equations> equations = new HashMap<>();
+  /**
+   * @param parallel if true, methods of the class are analyzed concurrently on {@link ParallelAnalysis#POOL};
+   *                 the resulting equations are the same as for sequential analysis
+   */
+  public static Map<EKey, Equations> processClass(final ClassReader classReader, final String presentableUrl, boolean parallel) {
+    final Map<EKey, Equations> equations = parallel ? new ConcurrentHashMap<>() : new HashMap<>();
 
     registerVolatileFields(equations, classReader);
     Set<Member> staticFinalFields = getStaticFinalFields(classReader);
@@ -180,8 +184,9 @@ public class ClassDataIndexer implements BiFunction<Project, VirtualFile,Map<HMe
           true));
     }
 
-    classReader.accept(
-        new MethodAnalysisVisitor(equations, presentableUrl, sharedPendingStates, sharedPendingActions, sharedResults, staticFinalFields), ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+    MethodAnalysisVisitor visitor = new MethodAnalysisVisitor(equations, presentableUrl, staticFinalFields, parallel);
+    classReader.accept(visitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+    visitor.processDeferredMethods();
 
     return equations;
   }
@@ -221,6 +226,11 @@ public class ClassDataIndexer implements BiFunction<Project, VirtualFile,Map<HMe
         file -> ourGist.getFileData(null, file).get(key));
   }
 
+  @Nonnull
+  static Collection<VirtualFile> getEquationFiles(GlobalSearchScope scope, HMember key) {
+    return FileBasedIndex.getInstance().getContainingFiles(BytecodeAnalysisIndex.NAME, key, scope);
+  }
+
   private static class ClassDataIndexerStatistics implements Consumer<Map<HMember, Equations>> {
     private static final AtomicLong ourTotalSize = new AtomicLong(0);
     private static final AtomicLong ourTotalCount = new AtomicLong(0);
@@ -246,25 +256,100 @@ public class ClassDataIndexer implements BiFunction<Project, VirtualFile,Map<HMe
     }
   }
 
+  /**
+   * Pending states, actions and results shared between analyses.
+   * <p>
+   * It is OK to share pending states, actions and results for analyses.
+   * Analyses are designed in such a way that they first write to states/actions/results and then read only those portion
+   * of states/actions/results which were written by the current pass of the analysis.
+   * Since states/actions/results are quite expensive to create (32K array) for each analysis, we create them once per class analysis
+   * (or once per method analyzed at the same time in parallel mode), so they are dropped along with the class.
+   */
+  private static class SharedBuffers {
+    final State[] pendingStates = new State[Analysis.STEPS_LIMIT];
+    final PendingAction[] pendingActions = new PendingAction[Analysis.STEPS_LIMIT];
+    final PResults.PResult[] results = new PResults.PResult[Analysis.STEPS_LIMIT];
+  }
+
+  private static class ParallelAnalysis {
+    static final ForkJoinPool POOL = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+  }
+
   private static class MethodAnalysisVisitor extends KeyedMethodVisitor {
     private final Map<EKey, Equations> myEquations;
     private final String myPresentableUrl;
-    private final State[] mySharedPendingStates;
-    private final PendingAction[] mySharedPendingActions;
-    private final PResults.PResult[] mySharedResults;
     private final Set<Member> myStaticFinalFields;
+    private final boolean myParallel;
+    private SharedBuffers myBuffers;
+    private final List<Consumer<SharedBuffers>> myDeferredMethods = new ArrayList<>();
 
     private MethodAnalysisVisitor(Map<EKey, Equations> equations,
                                   String presentableUrl,
-                                  State[] sharedPendingStates,
-                                  PendingAction[] sharedPendingActions,
-                                  PResults.PResult[] sharedResults, Set<Member> staticFinalFields) {
+                                  Set<Member> staticFinalFields,
+                                  boolean parallel) {
       myEquations = equations;
       myPresentableUrl = presentableUrl;
-      mySharedPendingStates = sharedPendingStates;
-      mySharedPendingActions = sharedPendingActions;
-      mySharedResults = sharedResults;
       myStaticFinalFields = staticFinalFields;
+      myParallel = parallel;
+    }
+
+    private SharedBuffers getClassBuffers() {
+      if (myBuffers == null) {
+        myBuffers = new SharedBuffers();
+      }
+      return myBuffers;
+    }
+
+    private void analyzeMethod(MethodNode node, boolean jsr, Member method, EKey key, SharedBuffers buffers) {
+      myEquations.put(key, convertEquations(key, processMethod(node, jsr, method, key.stable, buffers)));
+    }
+
+    /**
+     * Runs the analyses of methods collected during the class visit in parallel mode. Does nothing in sequential mode.
+     */
+    void processDeferredMethods() {
+      if (myDeferredMethods.isEmpty()) {
+        return;
+      }
+      if (myDeferredMethods.size() == 1) {
+        myDeferredMethods.get(0).accept(getClassBuffers());
+        return;
+      }
+      ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+      // buffers of the finished tasks are reused by the next ones, so there are no more of them than the tasks running at once
+      Queue<SharedBuffers> freeBuffers = new ConcurrentLinkedQueue<>();
+      freeBuffers.add(getClassBuffers());
+      List<Callable<Object>> tasks = ContainerUtil.map(myDeferredMethods, task -> Executors.callable(
+        () -> ProgressManager.getInstance().executeProcessUnderProgress(() -> {
+          SharedBuffers buffers = freeBuffers.poll();
+          if (buffers == null) {
+            buffers = new SharedBuffers();
+          }
+          try {
+            task.accept(buffers);
+          }
+          finally {
+            freeBuffers.add(buffers);
+          }
+        }, indicator)));
+      for (Future<Object> future : ParallelAnalysis.POOL.invokeAll(tasks)) {
+        try {
+          future.get();
+        }
+        catch (InterruptedException e) {
+          throw new ProcessCanceledException(e);
+        }
+        catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof RuntimeException) {
+            throw (RuntimeException)cause;
+          }
+          if (cause instanceof Error) {
+            throw (Error)cause;
+          }
+          throw new RuntimeException(cause);
+        }
+      }
     }
 
     @Override
@@ -283,7 +368,13 @@ public class ClassDataIndexer implements BiFunction<Project, VirtualFile,Map<HMe
         @Override
         public void visitEnd() {
           super.visitEnd();
-          myEquations.put(key, convertEquations(key, processMethod(node, jsr, method, key.stable)));
+          boolean hasJsr = jsr;
+          if (myParallel) {
+            myDeferredMethods.add(buffers -> analyzeMethod(node, hasJsr, method, key, buffers));
+          }
+          else {
+            analyzeMethod(node, hasJsr, method, key, getClassBuffers());
+          }
         }
       };
     }
@@ -295,8 +386,9 @@ public class ClassDataIndexer implements BiFunction<Project, VirtualFile,Map<HMe
      * @param jsr        whether a method has jsr instruction
      * @param method     a method descriptor
      * @param stable     whether a method is stable (final or declared in a final class)
+     * @param buffers    pending states/actions/results which are not used concurrently by other analyses
      */
-    private List<Equation> processMethod(final MethodNode methodNode, boolean jsr, Member method, boolean stable) {
+    private List<Equation> processMethod(final MethodNode methodNode, boolean jsr, Member method, boolean stable, SharedBuffers buffers) {
       ProgressManager.checkCanceled();
       final Type[] argumentTypes = Type.getArgumentTypes(methodNode.desc);
       final Type resultType = Type.getReturnType(methodNode.desc);
@@ -324,7 +416,8 @@ public class ClassDataIndexer implements BiFunction<Project, VirtualFile,Map<HMe
             RichControlFlow richControlFlow = new RichControlFlow(graph, dfs);
             if (richControlFlow.reducible()) {
               NegationAnalysis negated = tryNegation(method, argumentTypes, graph, isBooleanResult, dfs, jsr);
-              processBranchingMethod(method, methodNode, richControlFlow, argumentTypes, resultType, stable, jsr, equations, negated);
+              processBranchingMethod(method, methodNode, richControlFlow, argumentTypes, resultType, stable, jsr, equations, negated,
+                                     buffers);
               return equations;
             }
             LOG.debug(method + ": CFG is not reducible");
@@ -448,7 +541,8 @@ public class ClassDataIndexer implements BiFunction<Project, VirtualFile,Map<HMe
                                         final boolean stable,
                                         boolean jsr,
                                         List<? super Equation> result,
-                                        NegationAnalysis negatedAnalysis) throws AnalyzerException {
+                                        NegationAnalysis negatedAnalysis,
+                                        SharedBuffers buffers) throws AnalyzerException {
       final boolean isReferenceResult = ASMUtils.isReferenceType(resultType);
       final boolean isBooleanResult = ASMUtils.isBooleanType(resultType);
       boolean isInterestingResult = isBooleanResult || isReferenceResult;
@@ -463,7 +557,7 @@ public class ClassDataIndexer implements BiFunction<Project, VirtualFile,Map<HMe
 
       Equation outEquation =
           isInterestingResult ?
-              new InOutAnalysis(richControlFlow, Out, origins, stable, mySharedPendingStates).analyze() :
+              new InOutAnalysis(richControlFlow, Out, origins, stable, buffers.pendingStates).analyze() :
               null;
 
       if (isReferenceResult) {
@@ -477,7 +571,7 @@ public class ClassDataIndexer implements BiFunction<Project, VirtualFile,Map<HMe
         shouldInferNonTrivialFailingContracts = false;
         throwEquation = new Equation(new EKey(method, Throw, stable), Value.Top);
       } else {
-        final InThrowAnalysis inThrowAnalysis = new InThrowAnalysis(richControlFlow, Throw, origins, stable, mySharedPendingStates);
+        final InThrowAnalysis inThrowAnalysis = new InThrowAnalysis(richControlFlow, Throw, origins, stable, buffers.pendingStates);
         throwEquation = inThrowAnalysis.analyze();
         if (!throwEquation.result.equals(Value.Top)) {
           result.add(throwEquation);
@@ -499,14 +593,14 @@ public class ClassDataIndexer implements BiFunction<Project, VirtualFile,Map<HMe
             Stream.Builder<Equation> builder = Stream.builder();
             try {
               if (isInterestingResult) {
-                builder.add(new InOutAnalysis(richControlFlow, new InOut(index, val), origins, stable, mySharedPendingStates).analyze());
+                builder.add(new InOutAnalysis(richControlFlow, new InOut(index, val), origins, stable, buffers.pendingStates).analyze());
               }
               if (shouldInferNonTrivialFailingContracts) {
                 InThrow direction = new InThrow(index, val);
                 if (throwEquation.result.equals(Value.Fail)) {
                   builder.add(new Equation(new EKey(method, direction, stable), Value.Fail));
                 } else {
-                  builder.add(new InThrowAnalysis(richControlFlow, direction, origins, stable, mySharedPendingStates).analyze());
+                  builder.add(new InThrowAnalysis(richControlFlow, direction, origins, stable, buffers.pendingStates).analyze());
                 }
               }
             } catch (AnalyzerException e) {
@@ -522,7 +616,7 @@ public class ClassDataIndexer implements BiFunction<Project, VirtualFile,Map<HMe
           boolean possibleNPE = false;
           if (leakingParameters[i]) {
             NonNullInAnalysis notNullInAnalysis =
-                new NonNullInAnalysis(richControlFlow, new In(i, false), stable, mySharedPendingActions, mySharedResults);
+                new NonNullInAnalysis(richControlFlow, new In(i, false), stable, buffers.pendingActions, buffers.results);
             Equation notNullParamEquation = notNullInAnalysis.analyze();
             possibleNPE = notNullInAnalysis.possibleNPE;
             notNullParam = notNullParamEquation.result.equals(Value.NotNull);
@@ -536,7 +630,7 @@ public class ClassDataIndexer implements BiFunction<Project, VirtualFile,Map<HMe
             if (notNullParam || possibleNPE) {
               result.add(new Equation(new EKey(method, new In(i, true), stable), Value.Top));
             } else {
-              result.add(new NullableInAnalysis(richControlFlow, new In(i, true), stable, mySharedPendingStates).analyze());
+              result.add(new NullableInAnalysis(richControlFlow, new In(i, true), stable, buffers.pendingStates).analyze());
             }
           } else {
             result.add(new Equation(new EKey(method, new In(i, true), stable), Value.Null));
@@ -0,0 +1,371 @@
+// Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.java.analysis.impl.codeInspection.bytecodeAnalysis;
+
+import consulo.util.collection.primitive.objects.ObjectIntMap;
+import consulo.util.collection.primitive.objects.ObjectMaps;
+
+import jakarta.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Alternative backend for {@link Solver} which produces the same solutions, but keeps the equation system in primitive arrays.
+ * <p>
+ * Every (member, direction) pair gets an int core id; the four variants of a key (stable/unstable, negated/not negated)
+ * are encoded in the two lowest bits of the key id, so {@link EKey#invertStability()} and {@link EKey#negate()} become
+ * bit operations. Components of pending equations are stored in flat arrays, dependencies in CSR (compressed sparse row)
+ * int arrays, and the worklist is an int stack, so no objects are allocated while the solutions are propagated.
+ */
+final class IntSolver implements ValueSolver
+{
+	private static final int STABLE_BIT = 1;
+	private static final int NEGATED_BIT = 2;
+	private static final int UNSOLVED = -1;
+	private static final int REMOVED = -1;
+	private static final Value[] VALUES = Value.values();
+
+	private final ELattice<Value> lattice;
+	private final ResultUtil resultUtil;
+	private final Value unstableValue;
+
+	// core id + 1 (0 means absent)
+	private final ObjectIntMap<CoreHKey> coreIds = ObjectMaps.newObjectIntHashMap();
+	private final List<CoreHKey> cores = new ArrayList<>();
+	// joined equation by core id
+	private final List<Equation> equations = new ArrayList<>();
+
+	// key id -> ordinal of solved value or UNSOLVED
+	private byte[] solved;
+	// key id -> [componentsStart, componentsEnd) range in component arrays, empty if key is not pending
+	private int[] componentsStart;
+	private int[] componentsEnd;
+	private boolean[] pending;
+
+	// component -> meet value ordinal and [idsStart, idsEnd) range in componentIds
+	private byte[] componentValues = new byte[16];
+	private int[] idsStart = new int[16];
+	private int[] idsEnd = new int[16];
+	private int componentCount;
+	private int[] componentIds = new int[64];
+	private int componentIdCount;
+
+	// trigger -> dependents in CSR form
+	private int[] dependentsStart;
+	private int[] dependents;
+
+	private int[] moving = new int[16];
+	private int movingSize;
+
+	IntSolver(ELattice<Value> lattice, Value unstableValue)
+	{
+		this.lattice = lattice;
+		this.unstableValue = unstableValue;
+		resultUtil = new ResultUtil(lattice);
+	}
+
+	@Override
+	public Result getUnknownResult()
+	{
+		return unstableValue;
+	}
+
+	@Override
+	public void addEquation(Equation equation)
+	{
+		EKey key = equation.key;
+		int coreId = coreId(key);
+		if(coreId == equations.size())
+		{
+			equations.add(equation);
+			return;
+		}
+		Equation previousEquation = equations.get(coreId);
+		EKey joinKey = new EKey(key.member, key.dirKey, equation.key.stable && previousEquation.key.stable, false);
+		Result joinResult = resultUtil.join(equation.result, previousEquation.result);
+		equations.set(coreId, new Equation(joinKey, joinResult));
+	}
+
+	private int coreId(EKey key)
+	{
+		CoreHKey coreKey = new CoreHKey(key.member, key.dirKey);
+		int id = coreIds.getInt(coreKey);
+		if(id == 0)
+		{
+			cores.add(coreKey);
+			id = cores.size();
+			coreIds.putInt(coreKey, id);
+		}
+		return id - 1;
+	}
+
+	private int keyId(EKey key)
+	{
+		return (coreId(key) << 2) | (key.stable ? STABLE_BIT : 0) | (key.negated ? NEGATED_BIT : 0);
+	}
+
+	private EKey toKey(int id)
+	{
+		CoreHKey core = cores.get(id >> 2);
+		return new EKey(core.myMethod, core.dirKey, (id & STABLE_BIT) != 0, (id & NEGATED_BIT) != 0);
+	}
+
+	@Override
+	public Map<EKey, Value> solve()
+	{
+		int[] triggers = new int[16];
+		int[] triggered = new int[16];
+		int pairCount = 0;
+		int[] equationKeys = new int[equations.size()];
+		for(int i = 0; i < equations.size(); i++)
+		{
+			equationKeys[i] = keyId(equations.get(i).key);
+		}
+		// key ids of all the dependencies are interned here as well, so the arrays are allocated afterwards
+		List<int[]> equationTriggers = new ArrayList<>(equations.size());
+		for(Equation equation : equations)
+		{
+			if(equation.result instanceof Pending)
+			{
+				Component[] delta = ((Pending) equation.result).delta;
+				int total = 0;
+				for(Component component : delta)
+				{
+					total += component.ids.length;
+				}
+				int[] ids = new int[total];
+				int index = 0;
+				for(Component component : delta)
+				{
+					for(EKey id : component.ids)
+					{
+						ids[index++] = keyId(id);
+					}
+				}
+				equationTriggers.add(ids);
+			}
+			else
+			{
+				equationTriggers.add(null);
+			}
+		}
+
+		int keyCount = cores.size() << 2;
+		solved = new byte[keyCount];
+		Arrays.fill(solved, (byte) UNSOLVED);
+		componentsStart = new int[keyCount];
+		componentsEnd = new int[keyCount];
+		pending = new boolean[keyCount];
+
+		for(int i = 0; i < equations.size(); i++)
+		{
+			int key = equationKeys[i];
+			Result rhs = equations.get(i).result;
+			if(rhs instanceof Value)
+			{
+				solve(key, (Value) rhs);
+			}
+			else if(rhs instanceof Pending)
+			{
+				int[] ids = equationTriggers.get(i);
+				componentsStart[key] = componentCount;
+				int index = 0;
+				for(Component component : ((Pending) rhs).delta)
+				{
+					addComponent(component.value, ids, index, component.ids.length);
+					index += component.ids.length;
+				}
+				componentsEnd[key] = componentCount;
+				Value norm = normalize(key);
+				if(norm != null)
+				{
+					componentsEnd[key] = componentsStart[key];
+					solve(key, norm);
+				}
+				else
+				{
+					pending[key] = true;
+					int[] unique = ids.clone();
+					Arrays.sort(unique);
+					for(int j = 0; j < unique.length; j++)
+					{
+						if(j > 0 && unique[j] == unique[j - 1])
+						{
+							continue;
+						}
+						if(pairCount == triggers.length)
+						{
+							triggers = Arrays.copyOf(triggers, pairCount * 2);
+							triggered = Arrays.copyOf(triggered, pairCount * 2);
+						}
+						triggers[pairCount] = unique[j];
+						triggered[pairCount] = key;
+						pairCount++;
+					}
+				}
+			}
+		}
+		buildDependents(keyCount, triggers, triggered, pairCount);
+
+		while(movingSize > 0)
+		{
+			int id = moving[--movingSize];
+			Value value = VALUES[solved[id]];
+
+			boolean stable = (id & STABLE_BIT) != 0;
+			int initialId0 = stable ? id : id ^ STABLE_BIT;
+			int initialId1 = stable ? id ^ STABLE_BIT : id;
+			Value initialValue0 = value;
+			Value initialValue1 = stable ? value : unstableValue;
+
+			propagate(initialId0, initialValue0);
+			propagate(initialId1, initialValue1);
+			propagate(initialId0 | NEGATED_BIT, negate(initialValue0));
+			propagate(initialId1 | NEGATED_BIT, negate(initialValue1));
+		}
+
+		Map<EKey, Value> result = new HashMap<>();
+		for(int id = 0; id < keyCount; id++)
+		{
+			if(solved[id] != UNSOLVED)
+			{
+				result.put(toKey(id), VALUES[solved[id]]);
+			}
+		}
+		return result;
+	}
+
+	private void propagate(int pId, Value pVal)
+	{
+		for(int i = dependentsStart[pId]; i < dependentsStart[pId + 1]; i++)
+		{
+			int dId = dependents[i];
+			if(!pending[dId])
+			{
+				continue;
+			}
+			// substitute pId -> pVal into pending
+			for(int c = componentsStart[dId]; c < componentsEnd[dId]; c++)
+			{
+				boolean removed = false;
+				for(int j = idsStart[c]; j < idsEnd[c]; j++)
+				{
+					if(componentIds[j] == pId)
+					{
+						componentIds[j] = REMOVED;
+						removed = true;
+					}
+				}
+				if(removed)
+				{
+					componentValues[c] = (byte) lattice.meet(VALUES[componentValues[c]], pVal).ordinal();
+				}
+			}
+			Value norm = normalize(dId);
+			if(norm != null)
+			{
+				pending[dId] = false;
+				solve(dId, norm);
+			}
+		}
+	}
+
+	/**
+	 * @return value of the pending key if it's computable now, null otherwise
+	 */
+	private Value normalize(int key)
+	{
+		Value acc = lattice.bot;
+		boolean computableNow = true;
+		for(int c = componentsStart[key]; c < componentsEnd[key]; c++)
+		{
+			Value value = VALUES[componentValues[c]];
+			if(value == lattice.bot || isEmpty(c))
+			{
+				acc = lattice.join(acc, value);
+			}
+			else
+			{
+				computableNow = false;
+			}
+		}
+		return (acc == lattice.top || computableNow) ? acc : null;
+	}
+
+	private boolean isEmpty(int component)
+	{
+		for(int j = idsStart[component]; j < idsEnd[component]; j++)
+		{
+			if(componentIds[j] != REMOVED)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void solve(int key, @Nonnull Value value)
+	{
+		solved[key] = (byte) value.ordinal();
+		if(movingSize == moving.length)
+		{
+			moving = Arrays.copyOf(moving, movingSize * 2);
+		}
+		moving[movingSize++] = key;
+	}
+
+	private void addComponent(Value value, int[] ids, int from, int length)
+	{
+		if(componentCount == componentValues.length)
+		{
+			int size = componentCount * 2;
+			componentValues = Arrays.copyOf(componentValues, size);
+			idsStart = Arrays.copyOf(idsStart, size);
+			idsEnd = Arrays.copyOf(idsEnd, size);
+		}
+		if(componentIdCount + length > componentIds.length)
+		{
+			componentIds = Arrays.copyOf(componentIds, Math.max(componentIds.length * 2, componentIdCount + length));
+		}
+		System.arraycopy(ids, from, componentIds, componentIdCount, length);
+		componentValues[componentCount] = (byte) value.ordinal();
+		idsStart[componentCount] = componentIdCount;
+		componentIdCount += length;
+		idsEnd[componentCount] = componentIdCount;
+		componentCount++;
+	}
+
+	private void buildDependents(int keyCount, int[] triggers, int[] triggered, int pairCount)
+	{
+		dependentsStart = new int[keyCount + 1];
+		for(int i = 0; i < pairCount; i++)
+		{
+			dependentsStart[triggers[i] + 1]++;
+		}
+		for(int i = 0; i < keyCount; i++)
+		{
+			dependentsStart[i + 1] += dependentsStart[i];
+		}
+		dependents = new int[pairCount];
+		int[] fill = Arrays.copyOf(dependentsStart, keyCount);
+		for(int i = 0; i < pairCount; i++)
+		{
+			dependents[fill[triggers[i]]++] = triggered[i];
+		}
+	}
+
+	private static Value negate(Value value)
+	{
+		switch(value)
+		{
+			case True:
+				return Value.False;
+			case False:
+				return Value.True;
+			default:
+				return value;
+		}
+	}
+}
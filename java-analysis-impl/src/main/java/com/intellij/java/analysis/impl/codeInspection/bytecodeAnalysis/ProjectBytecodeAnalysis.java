@@ -27,12 +27,18 @@ import consulo.language.psi.scope.GlobalSearchScope;
 import consulo.language.psi.util.LanguageCachedValueUtil;
 import consulo.language.util.IncorrectOperationException;
 import consulo.logging.Logger;
+import consulo.module.content.ProjectFileIndex;
+import consulo.module.content.ProjectRootManager;
+import consulo.module.content.layer.OrderEnumerator;
 import consulo.project.Project;
+import consulo.project.content.ProjectRootModificationTracker;
 import consulo.project.content.scope.ProjectScopes;
 import consulo.util.collection.ContainerUtil;
 import consulo.util.collection.Stack;
 import consulo.util.lang.StringUtil;
+import consulo.virtualFileSystem.LocalFileSystem;
 import consulo.virtualFileSystem.VirtualFile;
+import consulo.virtualFileSystem.archive.ArchiveVfsUtil;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import one.util.streamex.EntryStream;
@@ -43,6 +49,8 @@ import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.util.*;
 import java.util.function.Function;
@@ -65,13 +73,17 @@ public class ProjectBytecodeAnalysis {
   public static final Logger LOG = Logger.getInstance("#com.intellij.codeInspection.bytecodeAnalysis");
   public static final String NULLABLE_METHOD = "java.annotations.inference.nullable.method";
   public static final String NULLABLE_METHOD_TRANSITIVITY = "java.annotations.inference.nullable.method.transitivity";
+  public static final String INT_SOLVER = "java.annotations.inference.int.solver";
   public static final int EQUATIONS_LIMIT = 1000;
 
   private final Project myProject;
   private final boolean nullableMethod;
   private final boolean nullableMethodTransitivity;
+  private final boolean intSolver;
   private final EquationProvider<?> myEquationProvider;
   private final NullableNotNullManager myNullabilityManager;
+  @Nullable
+  private final SolvedAnnotationsStorage mySolutionStorage;
 
   public static ProjectBytecodeAnalysis getInstance(@Nonnull Project project) {
     return ServiceManager.getService(project, ProjectBytecodeAnalysis.class);
@@ -84,6 +96,8 @@ public class ProjectBytecodeAnalysis {
     myEquationProvider = SKIP_INDEX ? new PlainEquationProvider(myProject) : new IndexedEquationProvider(myProject);
     nullableMethod = Registry.is(NULLABLE_METHOD, false);
     nullableMethodTransitivity = Registry.is(NULLABLE_METHOD_TRANSITIVITY, true);
+    intSolver = Registry.is(INT_SOLVER, false);
+    mySolutionStorage = SKIP_INDEX ? null : SolvedAnnotationsStorage.getInstance();
   }
 
   @Nullable
@@ -128,25 +142,24 @@ public class ProjectBytecodeAnalysis {
       if (primaryKey == null) {
         return PsiAnnotation.EMPTY_ARRAY;
       }
-      if (listOwner instanceof PsiMethod) {
-        List<EKey> allKeys = collectMethodKeys((PsiMethod)listOwner, primaryKey);
-        MethodAnnotations methodAnnotations = loadMethodAnnotations((PsiMethod)listOwner, primaryKey, allKeys);
-        return toPsi(primaryKey, methodAnnotations);
-      }
-      else if (listOwner instanceof PsiParameter) {
-        ParameterAnnotations parameterAnnotations = loadParameterAnnotations(primaryKey);
-        return toPsi(parameterAnnotations);
-      }
-      else if (listOwner instanceof PsiField && listOwner.hasModifierProperty(PsiModifier.STATIC)) {
-        Solver outSolver = new Solver(new ELattice<>(Value.Bot, Value.Top), Value.Top);
-        collectEquations(Collections.singletonList(primaryKey), outSolver);
-        Map<EKey, Value> solutions = outSolver.solve();
-        Value value = solutions.get(primaryKey);
-        if (value == Value.NotNull) {
-          return new PsiAnnotation[]{getNotNullAnnotation()};
-        }
+      VirtualFile jar = mySolutionStorage == null || file == null ? null : SolvedAnnotationsStorage.getJar(file);
+      String jarVersion = jar == null ? null : SolvedAnnotationsStorage.getJarVersion(jar);
+      if (jarVersion == null) {
+        return toPsi(solveAnnotations(listOwner, primaryKey, new DependencyTracker(EQUATIONS_LIMIT)));
       }
-      return PsiAnnotation.EMPTY_ARRAY;
+      String classPath = getClassPathFingerprint();
+      int settings = getSolutionSettings();
+      SolvedAnnotations persisted = mySolutionStorage.get(jarVersion, classPath, settings, primaryKey);
+      if (persisted != null && isUpToDate(persisted)) {
+        return toPsi(persisted);
+      }
+      DependencyTracker tracker = new DependencyTracker(EQUATIONS_LIMIT);
+      SolvedAnnotations solved = solveAnnotations(listOwner, primaryKey, tracker);
+      Map<String, String> dependencies = myEquationProvider.getJarDependencies(tracker.myMembers);
+      if (dependencies != null) {
+        mySolutionStorage.put(jarVersion, classPath, settings, primaryKey, solved.withDependencies(dependencies));
+      }
+      return toPsi(solved);
     }
     catch (EquationsLimitException e) {
       if (LOG.isDebugEnabled()) {
@@ -157,19 +170,88 @@ public class ProjectBytecodeAnalysis {
     }
   }
 
+  @Nonnull
+  private SolvedAnnotations solveAnnotations(PsiModifierListOwner listOwner, EKey primaryKey, DependencyTracker tracker)
+    throws EquationsLimitException {
+    if (listOwner instanceof PsiMethod) {
+      List<EKey> allKeys = collectMethodKeys((PsiMethod)listOwner, primaryKey);
+      MethodAnnotations methodAnnotations = loadMethodAnnotations((PsiMethod)listOwner, primaryKey, allKeys, tracker);
+      return SolvedAnnotations.ofMethod(primaryKey, methodAnnotations);
+    }
+    else if (listOwner instanceof PsiParameter) {
+      return SolvedAnnotations.ofParameter(loadParameterAnnotations(primaryKey, tracker));
+    }
+    else if (listOwner instanceof PsiField && listOwner.hasModifierProperty(PsiModifier.STATIC)) {
+      ValueSolver outSolver = newSolver(new ELattice<>(Value.Bot, Value.Top), Value.Top);
+      collectEquations(Collections.singletonList(primaryKey), outSolver, tracker);
+      Map<EKey, Value> solutions = outSolver.solve();
+      return SolvedAnnotations.ofParameter(new ParameterAnnotations(solutions.get(primaryKey) == Value.NotNull, false));
+    }
+    return SolvedAnnotations.ofParameter(new ParameterAnnotations(false, false));
+  }
+
+  /**
+   * @return bit mask of inference settings which affect the solutions
+   */
+  private int getSolutionSettings() {
+    return (nullableMethod ? 1 : 0) | (nullableMethodTransitivity ? 2 : 0);
+  }
+
+  /**
+   * @return digest of the versions of all the jars on the project class path, so that a jar added to or removed from the project
+   * invalidates the persisted solutions
+   */
+  @Nonnull
+  private String getClassPathFingerprint() {
+    return CachedValuesManager.getManager(myProject).getCachedValue(myProject, () -> {
+      List<String> versions = new ArrayList<>();
+      for (VirtualFile root : OrderEnumerator.orderEntries(myProject).classes().usingCache().getRoots()) {
+        VirtualFile jar = ArchiveVfsUtil.getVirtualFileForArchive(root);
+        if (jar != null) {
+          versions.add(jar.getPath() + '=' + SolvedAnnotationsStorage.getJarVersion(jar));
+        }
+      }
+      Collections.sort(versions);
+      MessageDigest md = BytecodeAnalysisConverter.getMessageDigest();
+      byte[] digest = md.digest(StringUtil.join(versions, "\n").getBytes(StandardCharsets.UTF_8));
+      String fingerprint = new BigInteger(1, digest).toString(Character.MAX_RADIX);
+      return CachedValueProvider.Result.create(fingerprint, ProjectRootModificationTracker.getInstance(myProject));
+    });
+  }
+
+  /**
+   * Checks that all the library jars used to obtain a persisted solution are visible in this project in the same versions.
+   */
+  private boolean isUpToDate(@Nonnull SolvedAnnotations annotations) {
+    if (annotations.dependencies.isEmpty()) {
+      return false;
+    }
+    ProjectFileIndex fileIndex = ProjectRootManager.getInstance(myProject).getFileIndex();
+    for (Map.Entry<String, String> entry : annotations.dependencies.entrySet()) {
+      VirtualFile jar = LocalFileSystem.getInstance().findFileByPath(entry.getKey());
+      if (jar == null || !entry.getValue().equals(SolvedAnnotationsStorage.getJarVersion(jar))) {
+        return false;
+      }
+      VirtualFile root = ArchiveVfsUtil.getArchiveRootForLocalFile(jar);
+      if (root == null || !fileIndex.isInLibraryClasses(root)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
-   * Converts inferred method annotations to Psi annotations
+   * Converts inferred annotations to Psi annotations
    *
-   * @param primaryKey        primary compressed key for method
-   * @param methodAnnotations inferred annotations
+   * @param annotations inferred annotations
    * @return Psi annotations
    */
   @Nonnull
-  private PsiAnnotation[] toPsi(EKey primaryKey, MethodAnnotations methodAnnotations) {
-    boolean notNull = methodAnnotations.notNulls.contains(primaryKey);
-    boolean nullable = methodAnnotations.nullables.contains(primaryKey);
-    boolean pure = methodAnnotations.pures.contains(primaryKey);
-    String contractValues = methodAnnotations.contractsValues.get(primaryKey);
+  private PsiAnnotation[] toPsi(SolvedAnnotations annotations) {
+    boolean notNull = annotations.notNull;
+    boolean nullable = annotations.nullable;
+    boolean pure = annotations.pure;
+    String contractValues = annotations.contract;
     String contractPsiText = null;
 
     if (contractValues != null) {
@@ -205,23 +287,6 @@ public class ProjectBytecodeAnalysis {
     return PsiAnnotation.EMPTY_ARRAY;
   }
 
-  /**
-   * Converts inferred parameter annotations to Psi annotations
-   *
-   * @param parameterAnnotations inferred parameter annotations
-   * @return Psi annotations
-   */
-  @Nonnull
-  private PsiAnnotation[] toPsi(ParameterAnnotations parameterAnnotations) {
-    if (parameterAnnotations.notNull) {
-      return new PsiAnnotation[]{getNotNullAnnotation()};
-    }
-    else if (parameterAnnotations.nullable) {
-      return new PsiAnnotation[]{getNullableAnnotation()};
-    }
-    return PsiAnnotation.EMPTY_ARRAY;
-  }
-
   public PsiAnnotation getNotNullAnnotation() {
     return CachedValuesManager.getManager(myProject).getCachedValue(myProject, () ->
       CachedValueProvider.Result.create(createAnnotationFromText("@" + myNullabilityManager.getDefaultNotNull()), myNullabilityManager));
@@ -275,17 +340,18 @@ public class ProjectBytecodeAnalysis {
     return BytecodeAnalysisConverter.mkInOutKeys(method, primaryKey);
   }
 
-  private ParameterAnnotations loadParameterAnnotations(@Nonnull EKey notNullKey) throws EquationsLimitException {
-    Solver notNullSolver = new Solver(new ELattice<>(Value.NotNull, Value.Top), Value.Top);
-    collectEquations(Collections.singletonList(notNullKey), notNullSolver);
+  private ParameterAnnotations loadParameterAnnotations(@Nonnull EKey notNullKey, DependencyTracker tracker)
+    throws EquationsLimitException {
+    ValueSolver notNullSolver = newSolver(new ELattice<>(Value.NotNull, Value.Top), Value.Top);
+    collectEquations(Collections.singletonList(notNullKey), notNullSolver, tracker);
     Map<EKey, Value> notNullSolutions = notNullSolver.solve();
     // subtle point
     boolean notNull =
       (Value.NotNull == notNullSolutions.get(notNullKey)) || (Value.NotNull == notNullSolutions.get(notNullKey.mkUnstable()));
 
-    Solver nullableSolver = new Solver(new ELattice<>(Value.Null, Value.Top), Value.Top);
+    ValueSolver nullableSolver = newSolver(new ELattice<>(Value.Null, Value.Top), Value.Top);
     EKey nullableKey = new EKey(notNullKey.member, notNullKey.dirKey + 1, true, false);
-    collectEquations(Collections.singletonList(nullableKey), nullableSolver);
+    collectEquations(Collections.singletonList(nullableKey), nullableSolver, tracker);
     Map<EKey, Value> nullableSolutions = nullableSolver.solve();
     // subtle point
     boolean nullable =
@@ -296,38 +362,39 @@ public class ProjectBytecodeAnalysis {
 
   private MethodAnnotations loadMethodAnnotations(@Nonnull PsiMethod owner,
                                                   @Nonnull EKey key,
-                                                  List<EKey> allKeys) throws EquationsLimitException {
+                                                  List<EKey> allKeys,
+                                                  DependencyTracker tracker) throws EquationsLimitException {
     MethodAnnotations result = new MethodAnnotations();
 
     PuritySolver puritySolver = new PuritySolver();
-    collectPurityEquations(key.withDirection(Pure), puritySolver);
+    collectPurityEquations(key.withDirection(Pure), puritySolver, tracker);
     Map<EKey, Effects> puritySolutions = puritySolver.solve();
 
     int arity = owner.getParameterList().getParametersCount();
     BytecodeAnalysisConverter.addEffectAnnotations(puritySolutions, result, key, owner.isConstructor());
 
     EKey failureKey = key.withDirection(Throw);
-    Solver failureSolver = new Solver(new ELattice<>(Value.Fail, Value.Top), Value.Top);
-    collectEquations(Collections.singletonList(failureKey), failureSolver);
+    ValueSolver failureSolver = newSolver(new ELattice<>(Value.Fail, Value.Top), Value.Top);
+    collectEquations(Collections.singletonList(failureKey), failureSolver, tracker);
     if (failureSolver.solve().get(failureKey) == Value.Fail) {
       // Always failing method
       result.contractsValues.put(key, StreamEx.constant("_", arity).joining(",", "\"", "->fail\""));
     }
     else {
-      Solver outSolver = new Solver(new ELattice<>(Value.Bot, Value.Top), Value.Top);
-      collectEquations(allKeys, outSolver);
+      ValueSolver outSolver = newSolver(new ELattice<>(Value.Bot, Value.Top), Value.Top);
+      collectEquations(allKeys, outSolver, tracker);
       Map<EKey, Value> solutions = outSolver.solve();
-      addMethodAnnotations(solutions, result, key, arity);
+      addMethodAnnotations(solutions, result, key, arity, tracker);
     }
 
     if (nullableMethod) {
-      Solver nullableMethodSolver = new Solver(new ELattice<>(Value.Bot, Value.Null), Value.Bot);
+      ValueSolver nullableMethodSolver = newSolver(new ELattice<>(Value.Bot, Value.Null), Value.Bot);
       EKey nullableKey = key.withDirection(NullableOut);
       if (nullableMethodTransitivity) {
-        collectEquations(Collections.singletonList(nullableKey), nullableMethodSolver);
+        collectEquations(Collections.singletonList(nullableKey), nullableMethodSolver, tracker);
       }
       else {
-        collectSingleEquation(nullableKey, nullableMethodSolver);
+        collectSingleEquation(nullableKey, nullableMethodSolver, tracker);
       }
       Map<EKey, Value> nullableSolutions = nullableMethodSolver.solve();
       if (nullableSolutions.get(nullableKey) == Value.Null || nullableSolutions.get(nullableKey.invertStability()) == Value.Null) {
@@ -342,7 +409,7 @@ public class ProjectBytecodeAnalysis {
     return new EKey(key.member, key.dirKey, stability, false);
   }
 
-  private void collectPurityEquations(EKey key, PuritySolver puritySolver) throws EquationsLimitException {
+  private void collectPurityEquations(EKey key, PuritySolver puritySolver, DependencyTracker tracker) throws EquationsLimitException {
     Set<EKey> queued = new HashSet<>();
     Deque<EKey> queue = new ArrayDeque<>();
 
@@ -350,11 +417,12 @@ public class ProjectBytecodeAnalysis {
     queued.add(key);
 
     while (!queue.isEmpty()) {
-      if (queued.size() > EQUATIONS_LIMIT) {
+      if (queued.size() > tracker.myLimit) {
         throw new EquationsLimitException();
       }
       ProgressManager.checkCanceled();
       EKey curKey = queue.pop();
+      tracker.myMembers.add(curKey.member);
 
       boolean stable = true;
       Effects combined = null;
@@ -373,7 +441,11 @@ public class ProjectBytecodeAnalysis {
     puritySolver.addPlainFieldEquations(md -> true);
   }
 
-  private void collectEquations(List<EKey> keys, Solver solver) throws EquationsLimitException {
+  private ValueSolver newSolver(ELattice<Value> lattice, Value unstableValue) {
+    return intSolver ? new IntSolver(lattice, unstableValue) : new Solver(lattice, unstableValue);
+  }
+
+  private void collectEquations(List<EKey> keys, ValueSolver solver, DependencyTracker tracker) throws EquationsLimitException {
     Set<EKey> queued = new HashSet<>();
     Stack<EKey> queue = new Stack<>();
 
@@ -383,11 +455,12 @@ public class ProjectBytecodeAnalysis {
     }
 
     while (!queue.empty()) {
-      if (queued.size() > EQUATIONS_LIMIT) {
+      if (queued.size() > tracker.myLimit) {
         throw new EquationsLimitException();
       }
       ProgressManager.checkCanceled();
       EKey curKey = queue.pop();
+      tracker.myMembers.add(curKey.member);
 
       for (Equations equations : myEquationProvider.getEquations(curKey.member)) {
         Result result = equations.find(curKey.getDirection()).orElseGet(solver::getUnknownResult);
@@ -397,8 +470,9 @@ public class ProjectBytecodeAnalysis {
     }
   }
 
-  private void collectSingleEquation(EKey curKey, Solver solver) {
+  private void collectSingleEquation(EKey curKey, ValueSolver solver, DependencyTracker tracker) {
     ProgressManager.checkCanceled();
+    tracker.myMembers.add(curKey.member);
 
     for (Equations equations : myEquationProvider.getEquations(curKey.member)) {
       Result result = equations.find(curKey.getDirection()).orElseGet(solver::getUnknownResult);
@@ -413,12 +487,13 @@ public class ProjectBytecodeAnalysis {
     return annotation;
   }
 
-  BitSet findAlwaysNotNullParameters(@Nonnull EKey methodKey, BitSet possiblyNotNullParameters) throws EquationsLimitException {
+  BitSet findAlwaysNotNullParameters(@Nonnull EKey methodKey, BitSet possiblyNotNullParameters, DependencyTracker tracker)
+    throws EquationsLimitException {
     BitSet alwaysNotNullParameters = new BitSet();
     if (possiblyNotNullParameters.cardinality() != 0) {
       List<EKey> keys = IntStreamEx.of(possiblyNotNullParameters).mapToObj(idx -> methodKey.withDirection(new In(idx, false))).toList();
-      Solver notNullSolver = new Solver(new ELattice<>(Value.NotNull, Value.Top), Value.Top);
-      collectEquations(keys, notNullSolver);
+      ValueSolver notNullSolver = newSolver(new ELattice<>(Value.NotNull, Value.Top), Value.Top);
+      collectEquations(keys, notNullSolver, tracker);
 
       Map<EKey, Value> notNullSolutions = notNullSolver.solve();
       alwaysNotNullParameters = IntStreamEx.of(possiblyNotNullParameters).filter(idx -> {
@@ -436,11 +511,13 @@ public class ProjectBytecodeAnalysis {
    * @param methodAnnotations annotations to which corresponding solutions should be added
    * @param methodKey         a primary key of a method being analyzed. not it is stable
    * @param arity             arity of this method (hint for constructing @Contract annotations)
+   * @param tracker           collects members whose equations are used
    */
   private void addMethodAnnotations(@Nonnull Map<EKey, Value> solution,
                                     @Nonnull MethodAnnotations methodAnnotations,
                                     @Nonnull EKey methodKey,
-                                    int arity)
+                                    int arity,
+                                    DependencyTracker tracker)
     throws EquationsLimitException {
     List<StandardMethodContract> contractClauses = new ArrayList<>();
     Set<EKey> notNulls = methodAnnotations.notNulls;
@@ -487,7 +564,7 @@ public class ProjectBytecodeAnalysis {
       }
     }
     List<StandardMethodContract> allContracts = StreamEx.of(failingContracts, nonFailingContracts).toFlatList(Function.identity());
-    removeConstraintFromNonNullParameter(methodKey, allContracts);
+    removeConstraintFromNonNullParameter(methodKey, allContracts, tracker);
 
     if (allContracts.isEmpty() && !fullReturnValue.equals(ContractReturnValue.returnAny())) {
       allContracts.add(StandardMethodContract.trivialContract(arity, fullReturnValue));
@@ -510,13 +587,14 @@ public class ProjectBytecodeAnalysis {
   }
 
   private void removeConstraintFromNonNullParameter(@Nonnull EKey methodKey,
-                                                    List<StandardMethodContract> allContracts) throws EquationsLimitException {
+                                                    List<StandardMethodContract> allContracts,
+                                                    DependencyTracker tracker) throws EquationsLimitException {
     BitSet possiblyNotNullParameters = StreamEx.of(allContracts)
                                                .flatMapToInt(
                                                  smc -> IntStreamEx.range(smc.getParameterCount())
                                                                    .filter(idx -> smc.getParameterConstraint(idx) == ValueConstraint.NOT_NULL_VALUE))
                                                .toBitSet();
-    BitSet alwaysNotNullParameters = findAlwaysNotNullParameters(methodKey, possiblyNotNullParameters);
+    BitSet alwaysNotNullParameters = findAlwaysNotNullParameters(methodKey, possiblyNotNullParameters, tracker);
     if (alwaysNotNullParameters.cardinality() != 0) {
       allContracts.replaceAll(smc -> {
         ValueConstraint[] constraints = smc.getConstraints().toArray(new ValueConstraint[0]);
@@ -562,6 +640,18 @@ public class ProjectBytecodeAnalysis {
     return new StandardMethodContract(constraints, returnValue);
   }
 
+  /**
+   * Limits the size of the equation system being collected and remembers members whose equations were used.
+   */
+  private static final class DependencyTracker {
+    final int myLimit;
+    final Set<MemberDescriptor> myMembers = new HashSet<>();
+
+    DependencyTracker(int limit) {
+      myLimit = limit;
+    }
+  }
+
   static abstract class EquationProvider<T extends MemberDescriptor> {
     final Map<T, List<Equations>> myEquationCache = ContainerUtil.createConcurrentSoftValueMap();
     final Project myProject;
@@ -574,6 +664,16 @@ public class ProjectBytecodeAnalysis {
     abstract EKey adaptKey(@Nonnull EKey key, MessageDigest messageDigest);
 
     abstract List<Equations> getEquations(MemberDescriptor method);
+
+    /**
+     * @param members members whose equations were used to solve some key
+     * @return library jar path to jar version mapping for all the jars declaring given members,
+     * or null if some equations do not come from a library jar (or are missing), so the solution must not be persisted
+     */
+    @Nullable
+    Map<String, String> getJarDependencies(Set<MemberDescriptor> members) {
+      return null;
+    }
   }
 
   /**
@@ -648,8 +748,11 @@ public class ProjectBytecodeAnalysis {
    * All EKey's are hashed after processing in ClassDataIndexer; persistent index is used to store equations
    */
   static class IndexedEquationProvider extends EquationProvider<HMember> {
+    final Map<HMember, Collection<VirtualFile>> myFileCache = ContainerUtil.createConcurrentSoftValueMap();
+
     IndexedEquationProvider(Project project) {
       super(project);
+      project.getMessageBus().connect().subscribe(PsiModificationTrackerListener.class, myFileCache::clear);
     }
 
     @Override
@@ -664,5 +767,32 @@ public class ProjectBytecodeAnalysis {
                                              m -> ClassDataIndexer.getEquations((GlobalSearchScope)ProjectScopes.getLibrariesScope(myProject),
                                                                                 m));
     }
+
+    @Nullable
+    @Override
+    Map<String, String> getJarDependencies(Set<MemberDescriptor> members) {
+      Set<VirtualFile> jars = new HashSet<>();
+      for (MemberDescriptor member : members) {
+        ProgressManager.checkCanceled();
+        Collection<VirtualFile> files = myFileCache.computeIfAbsent(
+          member.hashed(null),
+          m -> ClassDataIndexer.getEquationFiles((GlobalSearchScope)ProjectScopes.getLibrariesScope(myProject), m));
+        if (files.isEmpty()) {
+          return null;
+        }
+        for (VirtualFile file : files) {
+          VirtualFile jar = SolvedAnnotationsStorage.getJar(file);
+          if (jar == null) {
+            return null;
+          }
+          jars.add(jar);
+        }
+      }
+      Map<String, String> result = new HashMap<>();
+      for (VirtualFile jar : jars) {
+        result.put(jar.getPath(), SolvedAnnotationsStorage.getJarVersion(jar));
+      }
+      return result;
+    }
   }
 }
\ No newline at end of file
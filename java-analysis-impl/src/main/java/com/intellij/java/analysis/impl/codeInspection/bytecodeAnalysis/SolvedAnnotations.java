@@ -0,0 +1,84 @@
+// Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.java.analysis.impl.codeInspection.bytecodeAnalysis;
+
+import consulo.index.io.data.DataExternalizer;
+import consulo.index.io.data.DataInputOutputUtil;
+import consulo.util.lang.Pair;
+import one.util.streamex.StreamEx;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Inferred annotations of a single library member (method, parameter or static field) in the form
+ * they are persisted by {@link SolvedAnnotationsStorage}.
+ */
+final class SolvedAnnotations {
+  private static final int NOT_NULL = 1;
+  private static final int NULLABLE = 1 << 1;
+  private static final int PURE = 1 << 2;
+
+  final boolean notNull;
+  final boolean nullable;
+  final boolean pure;
+  // value of @Contract annotation, including quotes
+  @Nullable
+  final String contract;
+  // library jar path -> jar version (name, length and timestamp), for every jar whose equations were used to solve the member
+  @Nonnull
+  final Map<String, String> dependencies;
+
+  SolvedAnnotations(boolean notNull, boolean nullable, boolean pure, @Nullable String contract, @Nonnull Map<String, String> dependencies) {
+    this.notNull = notNull;
+    this.nullable = nullable;
+    this.pure = pure;
+    this.contract = contract;
+    this.dependencies = dependencies;
+  }
+
+  static SolvedAnnotations ofMethod(@Nonnull EKey primaryKey, @Nonnull MethodAnnotations annotations) {
+    return new SolvedAnnotations(annotations.notNulls.contains(primaryKey), annotations.nullables.contains(primaryKey),
+                                 annotations.pures.contains(primaryKey), annotations.contractsValues.get(primaryKey),
+                                 Collections.emptyMap());
+  }
+
+  static SolvedAnnotations ofParameter(@Nonnull ParameterAnnotations annotations) {
+    return new SolvedAnnotations(annotations.notNull, annotations.nullable, false, null, Collections.emptyMap());
+  }
+
+  SolvedAnnotations withDependencies(@Nonnull Map<String, String> dependencies) {
+    return new SolvedAnnotations(notNull, nullable, pure, contract, dependencies);
+  }
+
+  static class Externalizer implements DataExternalizer<SolvedAnnotations> {
+    static final Externalizer INSTANCE = new Externalizer();
+
+    @Override
+    public void save(@Nonnull DataOutput out, SolvedAnnotations value) throws IOException {
+      int flags = (value.notNull ? NOT_NULL : 0) | (value.nullable ? NULLABLE : 0) | (value.pure ? PURE : 0);
+      out.writeByte(flags);
+      out.writeBoolean(value.contract != null);
+      if (value.contract != null) {
+        out.writeUTF(value.contract);
+      }
+      DataInputOutputUtil.writeSeq(out, value.dependencies.entrySet(), entry -> {
+        out.writeUTF(entry.getKey());
+        out.writeUTF(entry.getValue());
+      });
+    }
+
+    @Override
+    public SolvedAnnotations read(@Nonnull DataInput in) throws IOException {
+      int flags = in.readByte();
+      String contract = in.readBoolean() ? in.readUTF() : null;
+      Map<String, String> dependencies =
+        StreamEx.of(DataInputOutputUtil.readSeq(in, () -> Pair.create(in.readUTF(), in.readUTF()))).toMap(Pair::getFirst, Pair::getSecond);
+      return new SolvedAnnotations((flags & NOT_NULL) != 0, (flags & NULLABLE) != 0, (flags & PURE) != 0, contract, dependencies);
+    }
+  }
+}
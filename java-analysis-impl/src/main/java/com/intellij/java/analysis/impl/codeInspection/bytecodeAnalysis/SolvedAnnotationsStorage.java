@@ -0,0 +1,194 @@
+// Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.java.analysis.impl.codeInspection.bytecodeAnalysis;
+
+import consulo.annotation.component.ComponentScope;
+import consulo.annotation.component.ServiceAPI;
+import consulo.annotation.component.ServiceImpl;
+import consulo.container.boot.ContainerPathManager;
+import consulo.disposer.Disposable;
+import consulo.ide.ServiceManager;
+import consulo.index.io.EnumeratorStringDescriptor;
+import consulo.index.io.PersistentHashMap;
+import consulo.util.io.FileUtil;
+import consulo.virtualFileSystem.VirtualFile;
+import consulo.virtualFileSystem.archive.ArchiveVfsUtil;
+import jakarta.inject.Singleton;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.intellij.java.analysis.impl.codeInspection.bytecodeAnalysis.ProjectBytecodeAnalysis.LOG;
+
+/**
+ * Application-wide persistent storage of inferred annotations of library members.
+ * <p>
+ * Solutions are keyed by the version of the library jar declaring the member (its name, length and timestamp)
+ * and by the fingerprint of the project class path, as a jar added to the project may provide the equations of a member
+ * which was unresolved before. So a library which never changes is solved once per machine and the solution is reused
+ * by all the projects with the same class path. Every solution records the jars whose equations were used to obtain it;
+ * the solution is reused only if the project sees exactly the same versions of these jars.
+ * <p>
+ * The storage may be disabled by another thread at any time on corruption, readers and writers share the lock which
+ * prevents the map from being closed under them.
+ */
+@Singleton
+@ServiceAPI(ComponentScope.APPLICATION)
+@ServiceImpl
+public class SolvedAnnotationsStorage implements Disposable {
+  private static final int VERSION = 3;
+
+  // read lock: access to the map; write lock: closing it
+  private final ReadWriteLock myLock = new ReentrantReadWriteLock();
+  private volatile PersistentHashMap<String, SolvedAnnotations> myMap;
+  private boolean myBroken;
+
+  public static SolvedAnnotationsStorage getInstance() {
+    return ServiceManager.getService(SolvedAnnotationsStorage.class);
+  }
+
+  /**
+   * @param classFile class file inside a library jar
+   * @return local jar file containing given class file or null if class file does not come from a jar
+   */
+  @Nullable
+  static VirtualFile getJar(@Nonnull VirtualFile classFile) {
+    VirtualFile root = classFile;
+    while (root.getParent() != null) {
+      root = root.getParent();
+    }
+    VirtualFile jar = ArchiveVfsUtil.getVirtualFileForArchive(root);
+    return jar != null && jar.isInLocalFileSystem() ? jar : null;
+  }
+
+  /**
+   * @return version of the jar, the file contents aren't read so that it's cheap enough to be computed in a read action
+   */
+  @Nonnull
+  static String getJarVersion(@Nonnull VirtualFile jar) {
+    return jar.getName() + '@' + jar.getLength() + '@' + jar.getTimeStamp();
+  }
+
+  @Nullable
+  SolvedAnnotations get(@Nonnull String jarVersion, @Nonnull String classPath, int settings, @Nonnull EKey key) {
+    IOException error;
+    myLock.readLock().lock();
+    try {
+      PersistentHashMap<String, SolvedAnnotations> map = getMap();
+      if (map == null) {
+        return null;
+      }
+      return map.get(storageKey(jarVersion, classPath, settings, key));
+    }
+    catch (IOException e) {
+      error = e;
+    }
+    finally {
+      myLock.readLock().unlock();
+    }
+    onCorrupted(error);
+    return null;
+  }
+
+  void put(@Nonnull String jarVersion, @Nonnull String classPath, int settings, @Nonnull EKey key, @Nonnull SolvedAnnotations annotations) {
+    IOException error;
+    myLock.readLock().lock();
+    try {
+      PersistentHashMap<String, SolvedAnnotations> map = getMap();
+      if (map == null) {
+        return;
+      }
+      map.put(storageKey(jarVersion, classPath, settings, key), annotations);
+      return;
+    }
+    catch (IOException e) {
+      error = e;
+    }
+    finally {
+      myLock.readLock().unlock();
+    }
+    onCorrupted(error);
+  }
+
+  @Nonnull
+  private static String storageKey(@Nonnull String jarVersion, @Nonnull String classPath, int settings, @Nonnull EKey key) {
+    return jarVersion + ':' + classPath + ':' + settings + ':' + key.member + ':' + key.dirKey;
+  }
+
+  @Nullable
+  private PersistentHashMap<String, SolvedAnnotations> getMap() {
+    PersistentHashMap<String, SolvedAnnotations> map = myMap;
+    if (map != null) {
+      return map;
+    }
+    synchronized (this) {
+      if (myMap == null && !myBroken) {
+        File file = getStorageFile();
+        try {
+          myMap = new PersistentHashMap<>(file, EnumeratorStringDescriptor.INSTANCE, SolvedAnnotations.Externalizer.INSTANCE);
+        }
+        catch (IOException e) {
+          LOG.info("Cannot open inferred annotations storage, recreating", e);
+          FileUtil.delete(file.getParentFile());
+          try {
+            myMap = new PersistentHashMap<>(file, EnumeratorStringDescriptor.INSTANCE, SolvedAnnotations.Externalizer.INSTANCE);
+          }
+          catch (IOException e1) {
+            LOG.warn("Inferred annotations storage is disabled", e1);
+            myBroken = true;
+          }
+        }
+      }
+      return myMap;
+    }
+  }
+
+  private void onCorrupted(IOException e) {
+    myLock.writeLock().lock();
+    try {
+      if (myBroken) {
+        return;
+      }
+      LOG.warn("Inferred annotations storage is corrupted, disabling it", e);
+      myBroken = true;
+      closeMap();
+      FileUtil.delete(getStorageFile().getParentFile());
+    }
+    finally {
+      myLock.writeLock().unlock();
+    }
+  }
+
+  @Nonnull
+  private static File getStorageFile() {
+    // solutions depend on the equations format and on the inference settings
+    String version = VERSION + "." + ClassDataIndexer.FINAL_VERSION;
+    return new File(ContainerPathManager.get().getSystemPath(), "bytecodeAnalysis/solutions." + version + "/solutions");
+  }
+
+  private void closeMap() {
+    if (myMap != null) {
+      try {
+        myMap.close();
+      }
+      catch (IOException e) {
+        LOG.debug("Cannot close inferred annotations storage", e);
+      }
+      myMap = null;
+    }
+  }
+
+  @Override
+  public void dispose() {
+    myLock.writeLock().lock();
+    try {
+      closeMap();
+    }
+    finally {
+      myLock.writeLock().unlock();
+    }
+  }
+}
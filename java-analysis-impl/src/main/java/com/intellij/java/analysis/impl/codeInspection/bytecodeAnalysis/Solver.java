@@ -22,7 +22,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Stack;
 
-final class Solver
+final class Solver implements ValueSolver
 {
 	private final ELattice<Value> lattice;
 	private final HashMap<EKey, HashSet<EKey>> dependencies = new HashMap<>();
@@ -41,12 +41,14 @@ final class Solver
 		resultUtil = new ResultUtil(lattice);
 	}
 
-	Result getUnknownResult()
+	@Override
+	public Result getUnknownResult()
 	{
 		return unstableValue;
 	}
 
-	void addEquation(Equation equation)
+	@Override
+	public void addEquation(Equation equation)
 	{
 		EKey key = equation.key;
 		CoreHKey coreKey = new CoreHKey(key.member, key.dirKey);
@@ -116,7 +118,8 @@ final class Solver
 		}
 	}
 
-	Map<EKey, Value> solve()
+	@Override
+	public Map<EKey, Value> solve()
 	{
 		for(Equation equation : equations.values())
 		{
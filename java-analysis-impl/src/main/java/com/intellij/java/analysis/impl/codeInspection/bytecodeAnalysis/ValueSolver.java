@@ -0,0 +1,19 @@
+// Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.java.analysis.impl.codeInspection.bytecodeAnalysis;
+
+import java.util.Map;
+
+/**
+ * Solver of an equation system over a {@link Value} lattice, equations are added while they are collected.
+ *
+ * @see Solver
+ * @see IntSolver
+ */
+interface ValueSolver
+{
+	Result getUnknownResult();
+
+	void addEquation(Equation equation);
+
+	Map<EKey, Value> solve();
+}
@@ -18,6 +18,7 @@ import consulo.language.psi.PsiElement;
 import consulo.language.psi.PsiModificationTracker;
 import consulo.language.psi.util.LanguageCachedValueUtil;
 import consulo.language.psi.util.PsiTreeUtil;
+import consulo.util.collection.ContainerUtil;
 import consulo.util.lang.ThreeState;
 import one.util.streamex.StreamEx;
 import org.jetbrains.annotations.Contract;
@@ -104,6 +105,11 @@ public final class CommonDataflow {
       myResult = result;
     }
 
+    boolean isValid() {
+      return ContainerUtil.and(myData.keySet(), PsiElement::isValid) &&
+             (myDataAssertionsDisabled == myData || ContainerUtil.and(myDataAssertionsDisabled.keySet(), PsiElement::isValid));
+    }
+
     @Nonnull
     DataflowResult copy() {
       DataflowResult copy = new DataflowResult(myResult);
@@ -222,6 +228,38 @@ public final class CommonDataflow {
     }
   }
 
+  private static final class FingerprintedResult {
+    final DfaBodyFingerprint myFingerprint;
+    final DataflowResult myResult;
+
+    FingerprintedResult(DfaBodyFingerprint fingerprint, DataflowResult result) {
+      myFingerprint = fingerprint;
+      myResult = result;
+    }
+  }
+
+  /**
+   * Reuses the result computed on one of the previous modifications if neither the block nor the code it depends on
+   * was changed since then (see {@link DfaBodyFingerprint}).
+   */
+  @Nonnull
+  private static DataflowResult runOrReuseDFA(@Nonnull PsiElement block) {
+    if (!DfaBodyFingerprint.isCacheEnabled()) {
+      return runDFA(block);
+    }
+    ConcurrentHashMap<PsiElement, FingerprintedResult> structureMap =
+        LanguageCachedValueUtil.getCachedValue(block.getContainingFile(), () ->
+            CachedValueProvider.Result.create(new ConcurrentHashMap<>(), PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT));
+    DfaBodyFingerprint fingerprint = DfaBodyFingerprint.compute(block);
+    FingerprintedResult previous = structureMap.get(block);
+    if (previous != null && previous.myFingerprint.equals(fingerprint) && previous.myResult.isValid()) {
+      return previous.myResult;
+    }
+    DataflowResult result = runDFA(block);
+    structureMap.put(block, new FingerprintedResult(fingerprint, result));
+    return result;
+  }
+
   @Nonnull
   private static DataflowResult runDFA(@Nullable PsiElement block) {
     if (block == null) {
@@ -279,7 +317,7 @@ public final class CommonDataflow {
 
       @Override
       public boolean block() {
-        myResult = fileMap.computeIfAbsent(body, CommonDataflow::runDFA);
+        myResult = fileMap.computeIfAbsent(body, CommonDataflow::runOrReuseDFA);
         return true;
       }
 
@@ -29,6 +29,7 @@ import com.siyeh.ig.bugs.EqualsWithItselfInspection;
 import com.siyeh.ig.fixes.EqualsToEqualityFix;
 import com.siyeh.ig.psiutils.*;
 import consulo.application.ApplicationManager;
+import consulo.application.util.CachedValueProvider;
 import consulo.application.util.registry.Registry;
 import consulo.document.util.TextRange;
 import consulo.language.ast.IElementType;
@@ -36,6 +37,8 @@ import consulo.language.editor.inspection.*;
 import consulo.language.editor.intention.BaseIntentionAction;
 import consulo.language.psi.PsiElement;
 import consulo.language.psi.PsiElementVisitor;
+import consulo.language.psi.PsiModificationTracker;
+import consulo.language.psi.util.LanguageCachedValueUtil;
 import consulo.language.psi.util.PsiTreeUtil;
 import consulo.language.util.IncorrectOperationException;
 import consulo.logging.Logger;
@@ -52,6 +55,7 @@ import org.jetbrains.annotations.PropertyKey;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 import static consulo.util.lang.ObjectUtil.tryCast;
@@ -139,7 +143,7 @@ public abstract class DataFlowInspectionBase extends AbstractBaseJavaLocalInspec
 					return;
 				}
 
-				analyzeDfaWithNestedClosures(scope, holder, runner, initialStates, state);
+				analyzeMethodBody(scope, holder, runner, initialStates, state);
 				analyzeNullLiteralMethodArguments(method, holder, state);
 			}
 
@@ -230,6 +234,86 @@ public abstract class DataFlowInspectionBase extends AbstractBaseJavaLocalInspec
 		}
 	}
 
+	/**
+	 * Analyzes method body, reusing the problems reported on one of the previous highlighting passes if neither the body
+	 * nor the code it depends on was changed since then (see {@link DfaBodyFingerprint}).
+	 */
+	private void analyzeMethodBody(PsiCodeBlock scope,
+								   ProblemsHolder holder,
+								   DataFlowRunner dfaRunner,
+								   List<DfaMemoryState> initialStates,
+								   DataFlowInspectionStateBase state)
+	{
+		if(!holder.isOnTheFly() || !DfaBodyFingerprint.isCacheEnabled())
+		{
+			analyzeDfaWithNestedClosures(scope, holder, dfaRunner, initialStates, state);
+			return;
+		}
+		Map<PsiElement, ReportedProblems> structureMap = LanguageCachedValueUtil.getCachedValue(scope.getContainingFile(), () ->
+				CachedValueProvider.Result.create(new ConcurrentHashMap<>(), PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT));
+		DfaBodyFingerprint fingerprint = DfaBodyFingerprint.compute(scope);
+		int settings = getSettingsMask(state);
+		ReportedProblems previous = structureMap.get(scope);
+		if(previous != null && previous.isUpToDate(getClass(), settings, fingerprint))
+		{
+			previous.myProblems.forEach(holder::registerProblem);
+			return;
+		}
+		int start = holder.getResultCount();
+		analyzeDfaWithNestedClosures(scope, holder, dfaRunner, initialStates, state);
+		List<ProblemDescriptor> results = holder.getResults();
+		List<ProblemDescriptor> problems = new ArrayList<>(results.subList(start, results.size()));
+		structureMap.put(scope, new ReportedProblems(getClass(), settings, fingerprint, problems));
+	}
+
+	private static int getSettingsMask(DataFlowInspectionStateBase state)
+	{
+		boolean[] flags = {
+				state.SUGGEST_NULLABLE_ANNOTATIONS,
+				state.DONT_REPORT_TRUE_ASSERT_STATEMENTS,
+				state.TREAT_UNKNOWN_MEMBERS_AS_NULLABLE,
+				state.IGNORE_ASSERT_STATEMENTS,
+				state.REPORT_CONSTANT_REFERENCE_VALUES,
+				state.REPORT_NULLS_PASSED_TO_NOT_NULL_PARAMETER,
+				state.REPORT_NULLABLE_METHODS_RETURNING_NOT_NULL,
+				state.REPORT_UNSOUND_WARNINGS
+		};
+		int mask = 0;
+		for(int i = 0; i < flags.length; i++)
+		{
+			if(flags[i])
+			{
+				mask |= 1 << i;
+			}
+		}
+		return mask;
+	}
+
+	private static final class ReportedProblems
+	{
+		final Class<?> myInspectionClass;
+		final int mySettings;
+		final DfaBodyFingerprint myFingerprint;
+		final List<ProblemDescriptor> myProblems;
+
+		ReportedProblems(Class<?> inspectionClass, int settings, DfaBodyFingerprint fingerprint, List<ProblemDescriptor> problems)
+		{
+			myInspectionClass = inspectionClass;
+			mySettings = settings;
+			myFingerprint = fingerprint;
+			myProblems = problems;
+		}
+
+		boolean isUpToDate(Class<?> inspectionClass, int settings, DfaBodyFingerprint fingerprint)
+		{
+			return myInspectionClass == inspectionClass && mySettings == settings && myFingerprint.equals(fingerprint) &&
+					ContainerUtil.and(myProblems, problem -> {
+						PsiElement element = problem.getPsiElement();
+						return element != null && element.isValid();
+					});
+		}
+	}
+
 	private DataFlowInstructionVisitor analyzeDfaWithNestedClosures(PsiElement scope,
 																	ProblemsHolder holder,
 																	DataFlowRunner dfaRunner,
@@ -64,6 +64,13 @@ public class DataFlowRunner {
   private boolean myCancelled = false;
   private boolean myWasForciblyMerged = false;
   private final TimeStats myStats = createStatistics();
+  // statistics of the last interpret() call, reported to DfaProfile
+  private int myStatesCount;
+  private int myMaxStatesPerBranch;
+  private int myBackBranchMerges;
+  private
+  @Nullable
+  String myTooComplexReason;
 
   public DataFlowRunner(@Nonnull Project project) {
     this(project, null);
@@ -223,13 +230,33 @@ public class DataFlowRunner {
                          @Nonnull InstructionVisitor visitor,
                          @Nonnull ControlFlow flow,
                          @Nonnull List<DfaInstructionState> startingStates) {
+    myStatesCount = myMaxStatesPerBranch = myBackBranchMerges = 0;
+    myTooComplexReason = null;
+    final StateQueue queue = new StateQueue();
+    RunnerResult result = doInterpret(psiBlock, visitor, flow, startingStates, queue);
+    DfaProfile profile = DfaProfile.getInstanceIfEnabled();
+    if (profile != null) {
+      myStats.endProcess();
+      profile.record(psiBlock, new DfaProfile.MethodProfile(
+          result, myTooComplexReason, flow.getInstructionCount(), myStatesCount, myMaxStatesPerBranch,
+          queue.getJoinCount(), queue.getMergedStatesCount(), myBackBranchMerges,
+          myStats.getFlowTime(), myStats.getLVATime(), myStats.getMergeTime(), myStats.getProcessTime()));
+    }
+    return result;
+  }
+
+  @Nonnull
+  private RunnerResult doInterpret(@Nonnull PsiElement psiBlock,
+                                   @Nonnull InstructionVisitor visitor,
+                                   @Nonnull ControlFlow flow,
+                                   @Nonnull List<DfaInstructionState> startingStates,
+                                   @Nonnull StateQueue queue) {
     int endOffset = flow.getInstructionCount();
     myInstructions = flow.getInstructions();
     DfaInstructionState lastInstructionState = null;
     myNestedClosures.clear();
     myWasForciblyMerged = false;
 
-    final StateQueue queue = new StateQueue();
     for (DfaInstructionState state : startingStates) {
       queue.offer(state);
     }
@@ -241,13 +268,13 @@ public class DataFlowRunner {
       int[] loopNumber = flow.getLoopNumbers();
 
       int stateLimit = Registry.intValue("ide.dfa.state.limit", 50000);
-      int count = 0;
       while (!queue.isEmpty()) {
         myStats.startMerge();
         List<DfaInstructionState> states = queue.getNextInstructionStates(joinInstructions);
         myStats.endMerge();
         if (states.size() > MAX_STATES_PER_BRANCH) {
           LOG.trace("Too complex because too many different possible states");
+          myTooComplexReason = "Too many states at instruction after merging";
           return RunnerResult.TOO_COMPLEX;
         }
         assert !states.isEmpty();
@@ -255,8 +282,9 @@ public class DataFlowRunner {
         beforeInstruction(instruction);
         for (DfaInstructionState instructionState : states) {
           lastInstructionState = instructionState;
-          if (count++ > stateLimit) {
+          if (myStatesCount++ > stateLimit) {
             LOG.trace("Too complex data flow: too many instruction states processed");
+            myTooComplexReason = "Too many instruction states processed (ide.dfa.state.limit)";
             return RunnerResult.TOO_COMPLEX;
           }
           ProgressManager.checkCanceled();
@@ -271,7 +299,9 @@ public class DataFlowRunner {
             if (containsState(processed, instructionState)) {
               continue;
             }
+            myMaxStatesPerBranch = Math.max(myMaxStatesPerBranch, processed.size());
             if (processed.size() > MERGING_BACK_BRANCHES_THRESHOLD) {
+              myBackBranchMerges++;
               myStats.startMerge();
               instructionState = mergeBackBranches(instructionState, processed);
               myStats.endMerge();
@@ -281,6 +311,7 @@ public class DataFlowRunner {
             }
             if (processed.size() > MAX_STATES_PER_BRANCH) {
               LOG.trace("Too complex because too many different possible states");
+              myTooComplexReason = "Too many states processed at branching instruction (MAX_STATES_PER_BRANCH)";
               return RunnerResult.TOO_COMPLEX;
             }
             if (loopNumber[branching.getIndex()] != 0) {
@@ -679,7 +710,7 @@ public class DataFlowRunner {
     private long myMergeStart, myFlowTime, myLVATime, myMergeTime, myProcessTime;
 
     TimeStats() {
-      this(ApplicationManager.getApplication().isInternal());
+      this(ApplicationManager.getApplication().isInternal() || DfaProfile.getInstanceIfEnabled() != null);
     }
 
     public TimeStats(boolean record) {
@@ -726,6 +757,22 @@ public class DataFlowRunner {
       }
     }
 
+    long getFlowTime() {
+      return myFlowTime;
+    }
+
+    long getLVATime() {
+      return myLVATime;
+    }
+
+    long getMergeTime() {
+      return myMergeTime;
+    }
+
+    long getProcessTime() {
+      return myProcessTime;
+    }
+
     boolean isTooSlow() {
       return myProcessTime > DFA_EXECUTION_TIME_TO_REPORT_NANOS;
     }
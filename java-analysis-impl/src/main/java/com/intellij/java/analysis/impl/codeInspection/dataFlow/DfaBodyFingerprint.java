@@ -0,0 +1,112 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.java.analysis.impl.codeInspection.dataFlow;
+
+import com.intellij.java.language.psi.*;
+import consulo.application.util.registry.Registry;
+import consulo.language.psi.PsiElement;
+import consulo.language.psi.PsiFile;
+import consulo.language.psi.util.PsiTreeUtil;
+
+import jakarta.annotation.Nonnull;
+import java.util.*;
+
+/**
+ * Fingerprint of a code fragment analyzed by dataflow, used to reuse the analysis results between highlighting passes
+ * when the fragment was not changed.
+ * <p>
+ * Besides the fragment text, the fingerprint covers the texts of the same-file methods which may be called from the fragment
+ * (transitively) and the constructors and initializers of the enclosing classes, as dataflow looks into their bodies when
+ * inferring contracts, nullability and field initialization. Nothing is resolved: callees are matched by name, which may only
+ * cover more methods than needed. Declarations and other files are not covered: the caches using the fingerprint must be
+ * dropped on every java structure modification ({@code PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT}),
+ * and edits inside the method bodies of other files are not tracked, which is why the cache is opt-in.
+ */
+final class DfaBodyFingerprint {
+  private static final String CACHE_ENABLED = "ide.dfa.cross.pass.cache";
+
+  private final List<String> myTexts;
+
+  private DfaBodyFingerprint(@Nonnull List<String> texts) {
+    myTexts = texts;
+  }
+
+  static boolean isCacheEnabled() {
+    return Registry.is(CACHE_ENABLED, false);
+  }
+
+  @Nonnull
+  static DfaBodyFingerprint compute(@Nonnull PsiElement body) {
+    Map<String, List<PsiMethod>> methodsByName = new HashMap<>();
+    PsiFile file = body.getContainingFile();
+    if (file instanceof PsiClassOwner) {
+      for (PsiClass aClass : ((PsiClassOwner) file).getClasses()) {
+        collectMethods(aClass, methodsByName);
+      }
+    }
+    Set<PsiElement> visited = new HashSet<>();
+    Deque<PsiElement> queue = new ArrayDeque<>();
+    visited.add(body);
+    queue.add(body);
+    for (PsiClass aClass = PsiTreeUtil.getParentOfType(body, PsiClass.class, false);
+         aClass != null;
+         aClass = PsiTreeUtil.getParentOfType(aClass, PsiClass.class)) {
+      for (PsiMethod constructor : aClass.getConstructors()) {
+        if (visited.add(constructor)) {
+          queue.add(constructor);
+        }
+      }
+      for (PsiClassInitializer initializer : aClass.getInitializers()) {
+        if (visited.add(initializer)) {
+          queue.add(initializer);
+        }
+      }
+    }
+    List<String> texts = new ArrayList<>();
+    while (!queue.isEmpty()) {
+      PsiElement element = queue.poll();
+      texts.add(element.getText());
+      element.accept(new JavaRecursiveElementWalkingVisitor() {
+        @Override
+        public void visitReferenceElement(@Nonnull PsiJavaCodeReferenceElement reference) {
+          super.visitReferenceElement(reference);
+          // method calls, method references and constructor calls (the constructors are named after their class)
+          List<PsiMethod> methods = methodsByName.get(reference.getReferenceName());
+          if (methods != null) {
+            for (PsiMethod method : methods) {
+              if (visited.add(method)) {
+                queue.add(method);
+              }
+            }
+          }
+        }
+      });
+    }
+    return new DfaBodyFingerprint(texts);
+  }
+
+  private static void collectMethods(@Nonnull PsiClass aClass, @Nonnull Map<String, List<PsiMethod>> methodsByName) {
+    for (PsiMethod method : aClass.getMethods()) {
+      methodsByName.computeIfAbsent(method.getName(), k -> new ArrayList<>()).add(method);
+    }
+    for (PsiClass innerClass : aClass.getInnerClasses()) {
+      collectMethods(innerClass, methodsByName);
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    DfaBodyFingerprint that = (DfaBodyFingerprint) o;
+    return myTexts.equals(that.myTexts);
+  }
+
+  @Override
+  public int hashCode() {
+    return myTexts.hashCode();
+  }
+}
@@ -46,6 +46,8 @@ public class DfaInstructionState implements Comparable<DfaInstructionState> {
 class StateQueue {
   private static final int FORCE_MERGE_THRESHOLD = 100;
   private boolean myWasForciblyMerged;
+  private int myJoinCount;
+  private int myMergedStatesCount;
   private final PriorityQueue<DfaInstructionState> myQueue = new PriorityQueue<>();
   private final Set<Pair<Instruction, DfaMemoryState>> mySet = new HashSet<>();
 
@@ -86,6 +88,7 @@ class StateQueue {
       mySet.remove(Pair.create(instruction, anotherState));
       memoryStates.add((DfaMemoryStateImpl) anotherState);
     }
+    int statesCount = memoryStates.size();
 
     if (memoryStates.size() > 1 && joinInstructions.contains(instruction)) {
       memoryStates = squash(memoryStates);
@@ -119,6 +122,10 @@ class StateQueue {
     }
 
     memoryStates = forceMerge(memoryStates);
+    if (joinInstructions.contains(instruction)) {
+      myJoinCount++;
+    }
+    myMergedStatesCount += statesCount - memoryStates.size();
 
     return ContainerUtil.map(memoryStates, state1 -> new DfaInstructionState(instruction, state1));
   }
@@ -176,4 +183,12 @@ class StateQueue {
   boolean wasForciblyMerged() {
     return myWasForciblyMerged;
   }
+
+  int getJoinCount() {
+    return myJoinCount;
+  }
+
+  int getMergedStatesCount() {
+    return myMergedStatesCount;
+  }
 }
\ No newline at end of file
@@ -42,18 +42,25 @@ public class DfaMemoryStateImpl implements DfaMemoryState {
 
   private final DfaValueFactory myFactory;
 
-  private final List<EqClass> myEqClasses;
+  // myEqClasses, myIdToEqClassesIndices and myVariableTypes are shared with the copies of this state
+  // until modified: a holder copies them before its first modification unless it's the last one (see ensureOwnEqClasses() and
+  // ensureOwnVariableTypes())
+  private List<EqClass> myEqClasses;
   // dfa value id -> indices in myEqClasses list of the classes which contain the id
-  private final IntObjectMap<Integer> myIdToEqClassesIndices;
+  private IntObjectMap<Integer> myIdToEqClassesIndices;
+  private SharedHolders myEqClassesHolders;
   private final Stack<DfaValue> myStack;
   private final DistinctPairSet myDistinctClasses;
-  private final LinkedHashMap<DfaVariableValue, DfType> myVariableTypes;
+  private LinkedHashMap<DfaVariableValue, DfType> myVariableTypes;
+  private SharedHolders myVariableTypesHolders;
   private boolean myEphemeral;
 
   protected DfaMemoryStateImpl(final DfaValueFactory factory) {
     myFactory = factory;
     myEqClasses = new ArrayList<>();
+    myEqClassesHolders = new SharedHolders();
     myVariableTypes = new LinkedHashMap<>();
+    myVariableTypesHolders = new SharedHolders();
     myDistinctClasses = new DistinctPairSet(this);
     myStack = new Stack<>();
     myIdToEqClassesIndices = IntMaps.newIntObjectHashMap();
@@ -66,16 +73,34 @@ public class DfaMemoryStateImpl implements DfaMemoryState {
     myStack = new Stack<>(toCopy.myStack);
     myDistinctClasses = new DistinctPairSet(this, toCopy.myDistinctClasses);
 
-    myEqClasses = new ArrayList<>(toCopy.myEqClasses);
-    myIdToEqClassesIndices = IntMaps.newIntObjectHashMap();
-    toCopy.myIdToEqClassesIndices.forEach(myIdToEqClassesIndices::put);
+    myEqClasses = toCopy.myEqClasses;
+    myIdToEqClassesIndices = toCopy.myIdToEqClassesIndices;
+    myEqClassesHolders = toCopy.myEqClassesHolders.share();
 
-    myVariableTypes = new LinkedHashMap<>(toCopy.myVariableTypes);
+    myVariableTypes = toCopy.myVariableTypes;
+    myVariableTypesHolders = toCopy.myVariableTypesHolders.share();
 
     myCachedNonTrivialEqClasses = toCopy.myCachedNonTrivialEqClasses;
     myCachedHash = toCopy.myCachedHash;
   }
 
+  private void ensureOwnEqClasses() {
+    if (myEqClassesHolders.release()) {
+      myEqClasses = new ArrayList<>(myEqClasses);
+      IntObjectMap<Integer> indices = IntMaps.newIntObjectHashMap(myIdToEqClassesIndices.size());
+      myIdToEqClassesIndices.forEach(indices::put);
+      myIdToEqClassesIndices = indices;
+      myEqClassesHolders = new SharedHolders();
+    }
+  }
+
+  private void ensureOwnVariableTypes() {
+    if (myVariableTypesHolders.release()) {
+      myVariableTypes = new LinkedHashMap<>(myVariableTypes);
+      myVariableTypesHolders = new SharedHolders();
+    }
+  }
+
   @Nonnull
   public DfaValueFactory getFactory() {
     return myFactory;
@@ -114,10 +139,14 @@ public class DfaMemoryStateImpl implements DfaMemoryState {
     if (myCachedHash != null && that.myCachedHash != null && !myCachedHash.equals(that.myCachedHash)) {
       return false;
     }
+    // structures still shared with a copy are equal without looking into them;
+    // distinct pairs refer to the eq classes by index, so their data is equal only along with the eq classes
+    boolean sameEqClasses = myEqClasses == that.myEqClasses;
     return myEphemeral == that.myEphemeral && myStack.equals(that.myStack) &&
-        getNonTrivialEqClasses().equals(that.getNonTrivialEqClasses()) &&
-        getDistinctClassPairs().equals(that.getDistinctClassPairs()) &&
-        myVariableTypes.equals(that.myVariableTypes);
+        (sameEqClasses || getNonTrivialEqClasses().equals(that.getNonTrivialEqClasses())) &&
+        (sameEqClasses && myDistinctClasses.sharesData(that.myDistinctClasses) ||
+            getDistinctClassPairs().equals(that.getDistinctClassPairs())) &&
+        (myVariableTypes == that.myVariableTypes || myVariableTypes.equals(that.myVariableTypes));
   }
 
   Object getSuperficialKey() {
@@ -293,6 +322,7 @@ public class DfaMemoryStateImpl implements DfaMemoryState {
   }
 
   private int storeClass(EqClass eqClass) {
+    ensureOwnEqClasses();
     int freeIndex = myEqClasses.indexOf(null);
     int resultIndex = freeIndex >= 0 ? freeIndex : myEqClasses.size();
     if (freeIndex >= 0) {
@@ -486,6 +516,7 @@ public class DfaMemoryStateImpl implements DfaMemoryState {
 
     EqClass newClass = new EqClass(c1);
 
+    ensureOwnEqClasses();
     myEqClasses.set(c1Index, newClass);
     for (int i = 0; i < c2.size(); i++) {
       int c = c2.get(i);
@@ -520,6 +551,7 @@ public class DfaMemoryStateImpl implements DfaMemoryState {
     for (DfaVariableValue var : vars) {
       DfaVariableValue target = replaceQualifier(var, from, to);
       if (target != var) {
+        ensureOwnVariableTypes();
         DfType fromType = myVariableTypes.remove(var);
         if (fromType != null) {
           DfType toType = myVariableTypes.get(target);
@@ -1415,8 +1447,12 @@ public class DfaMemoryStateImpl implements DfaMemoryState {
       type = ((DfReferenceType) type).dropSpecialField();
     }
     if (type.equals(dfaVar.getInherentType())) {
-      myVariableTypes.remove(dfaVar);
-    } else {
+      if (myVariableTypes.containsKey(dfaVar)) {
+        ensureOwnVariableTypes();
+        myVariableTypes.remove(dfaVar);
+      }
+    } else if (!type.equals(myVariableTypes.get(dfaVar))) {
+      ensureOwnVariableTypes();
       myVariableTypes.put(dfaVar, type);
     }
     if (type instanceof DfEphemeralReferenceType) {
@@ -1572,7 +1608,10 @@ public class DfaMemoryStateImpl implements DfaMemoryState {
     }
 
     removeEquivalence(var);
-    myVariableTypes.remove(var);
+    if (myVariableTypes.containsKey(var)) {
+      ensureOwnVariableTypes();
+      myVariableTypes.remove(var);
+    }
     if (markFlushed) {
       DfType type = getDfType(var);
       if (type instanceof DfReferenceType) {
@@ -1598,6 +1637,7 @@ public class DfaMemoryStateImpl implements DfaMemoryState {
 
     varClass = new EqClass(varClass);
     DfaVariableValue previousCanonical = varClass.getCanonicalVariable();
+    ensureOwnEqClasses();
     myEqClasses.set(varClassIndex, varClass);
     varClass.removeValue(varID);
     myIdToEqClassesIndices.remove(varID);
@@ -1747,6 +1787,7 @@ public class DfaMemoryStateImpl implements DfaMemoryState {
     }
     int[] addedClassesArray = addedClasses.toArray();
     myDistinctClasses.splitClass(origIndex, addedClassesArray);
+    ensureOwnEqClasses();
     myEqClasses.set(origIndex, null);
 
     DfaVariableValue from = eqClass.getCanonicalVariable();
@@ -0,0 +1,174 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.java.analysis.impl.codeInspection.dataFlow;
+
+import com.intellij.java.language.psi.PsiClass;
+import com.intellij.java.language.psi.PsiMember;
+import com.intellij.java.language.psi.PsiMethod;
+import consulo.annotation.component.ComponentScope;
+import consulo.annotation.component.ServiceAPI;
+import consulo.annotation.component.ServiceImpl;
+import consulo.application.util.registry.Registry;
+import consulo.ide.ServiceManager;
+import consulo.java.language.impl.util.ExportableProfile;
+import consulo.language.psi.PsiElement;
+import consulo.language.psi.PsiFile;
+import consulo.language.psi.util.PsiTreeUtil;
+import consulo.virtualFileSystem.VirtualFile;
+import jakarta.inject.Singleton;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static consulo.java.language.impl.util.ProfileJsonUtil.writeField;
+
+/**
+ * Collects per-method statistics of dataflow runs (state counts, merges, reasons of {@link RunnerResult#TOO_COMPLEX}
+ * and time spent in every phase) while the {@value #PROFILE_ENABLED} registry key is set, so methods which are pathological
+ * for the analyzer can be found after inspecting the whole project. The collected profile can be exported as JSON.
+ */
+@Singleton
+@ServiceAPI(ComponentScope.APPLICATION)
+@ServiceImpl
+public class DfaProfile implements ExportableProfile {
+  private static final String PROFILE_ENABLED = "ide.dfa.profile";
+
+  // file path + analyzed element -> statistics of its last run
+  private final Map<String, MethodProfile> myProfiles = new ConcurrentHashMap<>();
+
+  @Nonnull
+  public static DfaProfile getInstance() {
+    return ServiceManager.getService(DfaProfile.class);
+  }
+
+  /**
+   * @return profile to record the dataflow runs to, or null if profiling is disabled
+   */
+  @Nullable
+  static DfaProfile getInstanceIfEnabled() {
+    return Registry.is(PROFILE_ENABLED, false) ? getInstance() : null;
+  }
+
+  void record(@Nonnull PsiElement block, @Nonnull MethodProfile profile) {
+    PsiFile file = block.getContainingFile();
+    VirtualFile virtualFile = file == null ? null : file.getVirtualFile();
+    profile.myFile = virtualFile == null ? String.valueOf(file) : virtualFile.getPath();
+    profile.myElement = describe(block);
+    myProfiles.merge(profile.myFile + ':' + profile.myElement, profile, (previous, current) -> {
+      current.myRuns = previous.myRuns + 1;
+      return current;
+    });
+  }
+
+  @Override
+  public void reset() {
+    myProfiles.clear();
+  }
+
+  /**
+   * Writes the profile as a JSON array of per-method objects, the slowest methods first.
+   */
+  @Override
+  public void exportJson(@Nonnull Writer writer) throws IOException {
+    List<MethodProfile> profiles = new ArrayList<>(myProfiles.values());
+    profiles.sort(Comparator.comparingLong((MethodProfile profile) -> profile.myTotalTime).reversed());
+    writer.write("[\n");
+    for (int i = 0; i < profiles.size(); i++) {
+      MethodProfile profile = profiles.get(i);
+      writer.write("  {");
+      writeField(writer, "file", profile.myFile, true);
+      writeField(writer, "element", profile.myElement, true);
+      writeField(writer, "result", profile.myResult.name(), true);
+      if (profile.myTooComplexReason != null) {
+        writeField(writer, "tooComplexReason", profile.myTooComplexReason, true);
+      }
+      writeField(writer, "runs", profile.myRuns, true);
+      writeField(writer, "instructions", profile.myInstructions, true);
+      writeField(writer, "states", profile.myStates, true);
+      writeField(writer, "maxStatesPerBranch", profile.myMaxStatesPerBranch, true);
+      writeField(writer, "joins", profile.myJoins, true);
+      writeField(writer, "mergedStates", profile.myMergedStates, true);
+      writeField(writer, "backBranchMerges", profile.myBackBranchMerges, true);
+      writeField(writer, "flowNanos", profile.myFlowTime, true);
+      writeField(writer, "lvaNanos", profile.myLVATime, true);
+      writeField(writer, "mergeNanos", profile.myMergeTime, true);
+      writeField(writer, "interpretNanos", profile.myInterpretTime, true);
+      writeField(writer, "totalNanos", profile.myTotalTime, false);
+      writer.write(i == profiles.size() - 1 ? "}\n" : "},\n");
+    }
+    writer.write("]\n");
+  }
+
+  @Nonnull
+  private static String describe(@Nonnull PsiElement block) {
+    PsiMember member = PsiTreeUtil.getNonStrictParentOfType(block, PsiMember.class);
+    if (member == null) {
+      return "<unknown>";
+    }
+    PsiClass aClass = member instanceof PsiClass ? (PsiClass) member : member.getContainingClass();
+    String className = aClass == null ? "<unknown>" : String.valueOf(aClass.getQualifiedName());
+    String name = member instanceof PsiClass ? "<init>" : member.getName();
+    String description = className + "#" + name;
+    if (!(member instanceof PsiClass) && !(member instanceof PsiMethod && block.getParent() == member)) {
+      // lambda or other nested block
+      description += "@" + block.getTextRange().getStartOffset();
+    }
+    return description;
+  }
+
+  /**
+   * Statistics of a single dataflow run. Times are in nanoseconds of the analyzing thread CPU time, merge time is wall time.
+   */
+  static final class MethodProfile {
+    private String myFile;
+    private String myElement;
+    private int myRuns = 1;
+    final RunnerResult myResult;
+    @Nullable
+    final String myTooComplexReason;
+    final int myInstructions;
+    final int myStates;
+    final int myMaxStatesPerBranch;
+    final int myJoins;
+    final int myMergedStates;
+    final int myBackBranchMerges;
+    final long myFlowTime;
+    final long myLVATime;
+    final long myMergeTime;
+    final long myInterpretTime;
+    final long myTotalTime;
+
+    MethodProfile(@Nonnull RunnerResult result,
+                  @Nullable String tooComplexReason,
+                  int instructions,
+                  int states,
+                  int maxStatesPerBranch,
+                  int joins,
+                  int mergedStates,
+                  int backBranchMerges,
+                  long flowTime,
+                  long lvaTime,
+                  long mergeTime,
+                  long totalTime) {
+      myResult = result;
+      myTooComplexReason = tooComplexReason;
+      myInstructions = instructions;
+      myStates = states;
+      myMaxStatesPerBranch = maxStatesPerBranch;
+      myJoins = joins;
+      myMergedStates = mergedStates;
+      myBackBranchMerges = backBranchMerges;
+      myFlowTime = flowTime;
+      myLVATime = lvaTime;
+      myMergeTime = mergeTime;
+      myInterpretTime = Math.max(0, totalTime - flowTime - lvaTime - mergeTime);
+      myTotalTime = totalTime;
+    }
+  }
+}
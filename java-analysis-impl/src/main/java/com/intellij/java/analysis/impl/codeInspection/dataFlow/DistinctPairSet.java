@@ -19,19 +19,42 @@ import java.util.PrimitiveIterator;
 final class DistinctPairSet extends AbstractSet<DistinctPairSet.DistinctPair>
 {
 	private final DfaMemoryStateImpl myState;
-	private final LongSet myData;
+	// shared with the copies of this set until modified, see ensureOwnData()
+	private LongSet myData;
+	private SharedHolders myHolders;
 
 	DistinctPairSet(DfaMemoryStateImpl state)
 	{
 		myState = state;
 		myData = LongSets.newHashSet();
+		myHolders = new SharedHolders();
 	}
 
 	DistinctPairSet(DfaMemoryStateImpl state, DistinctPairSet other)
 	{
-		myData = LongSets.newHashSet(other.size());
+		myData = other.myData;
 		myState = state;
-		other.myData.forEach(myData::add);
+		myHolders = other.myHolders.share();
+	}
+
+	private void ensureOwnData()
+	{
+		if(myHolders.release())
+		{
+			LongSet data = LongSets.newHashSet(myData.size());
+			myData.forEach(data::add);
+			myData = data;
+			myHolders = new SharedHolders();
+		}
+	}
+
+	/**
+	 * @return true if this set and the other one still share their data, so they contain the same pairs
+	 * as long as their states share the eq classes
+	 */
+	boolean sharesData(DistinctPairSet other)
+	{
+		return myData == other.myData;
 	}
 
 	boolean addOrdered(int firstIndex, int secondIndex)
@@ -61,6 +84,7 @@ final class DistinctPairSet extends AbstractSet<DistinctPairSet.DistinctPair>
 				toAdd.add(createPair(pair.myFirst, secondIndex, true));
 			}
 		}
+		ensureOwnData();
 		myData.addAll(toAdd.toArray());
 		return true;
 	}
@@ -70,6 +94,7 @@ final class DistinctPairSet extends AbstractSet<DistinctPairSet.DistinctPair>
 		if(!myData.contains(createPair(firstIndex, secondIndex, true)) &&
 				!myData.contains(createPair(secondIndex, firstIndex, true)))
 		{
+			ensureOwnData();
 			myData.add(createPair(firstIndex, secondIndex, false));
 		}
 	}
@@ -80,7 +105,13 @@ final class DistinctPairSet extends AbstractSet<DistinctPairSet.DistinctPair>
 		if(o instanceof DistinctPair)
 		{
 			DistinctPair dp = (DistinctPair) o;
-			return myData.remove(createPair(dp.myFirst, dp.mySecond, dp.myOrdered));
+			long pair = createPair(dp.myFirst, dp.mySecond, dp.myOrdered);
+			if(!myData.contains(pair))
+			{
+				return false;
+			}
+			ensureOwnData();
+			return myData.remove(pair);
 		}
 		return false;
 	}
@@ -120,7 +151,9 @@ final class DistinctPairSet extends AbstractSet<DistinctPairSet.DistinctPair>
 	{
 		return new Iterator<>()
 		{
-			final PrimitiveIterator.OfLong iterator = myData.iterator();
+			final LongSet data = myData;
+			final PrimitiveIterator.OfLong iterator = data.iterator();
+			long current;
 
 			@Override
 			public boolean hasNext()
@@ -131,13 +164,23 @@ final class DistinctPairSet extends AbstractSet<DistinctPairSet.DistinctPair>
 			@Override
 			public DistinctPair next()
 			{
-				return decode(iterator.next());
+				current = iterator.next();
+				return decode(current);
 			}
 
 			@Override
 			public void remove()
 			{
-				iterator.remove();
+				if(data == myData && !myHolders.isShared())
+				{
+					iterator.remove();
+				}
+				else
+				{
+					// iterated data is shared: keep iterating it and remove from the own copy
+					ensureOwnData();
+					myData.remove(current);
+				}
 			}
 		};
 	}
@@ -188,6 +231,10 @@ final class DistinctPairSet extends AbstractSet<DistinctPairSet.DistinctPair>
 			}
 		}
 
+		if(c2Pairs.size() > 0)
+		{
+			ensureOwnData();
+		}
 		for(int i = 0; i < c2Pairs.size(); i++)
 		{
 			long c = c2Pairs.get(i);
@@ -210,6 +257,7 @@ final class DistinctPairSet extends AbstractSet<DistinctPairSet.DistinctPair>
 
 	public void splitClass(int index, int[] splitIndices)
 	{
+		ensureOwnData();
 		LongList toAdd = LongLists.newArrayList();
 		for(PrimitiveIterator.OfLong iterator = myData.iterator(); iterator.hasNext(); )
 		{
@@ -261,7 +309,7 @@ final class DistinctPairSet extends AbstractSet<DistinctPairSet.DistinctPair>
 	{
 		boolean ordered = encoded < 0;
 		encoded = Math.abs(encoded);
-		return new DistinctPair(low(encoded), high(encoded), ordered, myState.getEqClasses());
+		return new DistinctPair(low(encoded), high(encoded), ordered, myState);
 	}
 
 	public void dropOrder(DistinctPair pair)
@@ -296,21 +344,27 @@ final class DistinctPairSet extends AbstractSet<DistinctPairSet.DistinctPair>
 		private final int myFirst;
 		private final int mySecond;
 		private final boolean myOrdered;
-		private final List<EqClass> myList;
+		// eq classes are read from the state on demand, as the state replaces its list on the first modification after copying
+		private final DfaMemoryStateImpl myState;
 
-		private DistinctPair(int first, int second, boolean ordered, List<EqClass> list)
+		private DistinctPair(int first, int second, boolean ordered, DfaMemoryStateImpl state)
 		{
 			myFirst = first;
 			mySecond = second;
 			myOrdered = ordered;
-			myList = list;
+			myState = state;
+		}
+
+		private List<EqClass> getList()
+		{
+			return myState.getEqClasses();
 		}
 
 		public
 		@Nonnull
 		EqClass getFirst()
 		{
-			return myList.get(myFirst);
+			return getList().get(myFirst);
 		}
 
 		public int getFirstIndex()
@@ -322,7 +376,7 @@ final class DistinctPairSet extends AbstractSet<DistinctPairSet.DistinctPair>
 		@Nonnull
 		EqClass getSecond()
 		{
-			return myList.get(mySecond);
+			return getList().get(mySecond);
 		}
 
 		public int getSecondIndex()
@@ -332,11 +386,11 @@ final class DistinctPairSet extends AbstractSet<DistinctPairSet.DistinctPair>
 
 		public void check()
 		{
-			if(myList.get(myFirst) == null)
+			if(getList().get(myFirst) == null)
 			{
 				throw new IllegalStateException(this + ": EqClass " + myFirst + " is missing");
 			}
-			if(myList.get(mySecond) == null)
+			if(getList().get(mySecond) == null)
 			{
 				throw new IllegalStateException(this + ": EqClass " + mySecond + " is missing");
 			}
@@ -391,7 +445,7 @@ final class DistinctPairSet extends AbstractSet<DistinctPairSet.DistinctPair>
 		@Override
 		public String toString()
 		{
-			return "{" + myList.get(myFirst) + (myOrdered ? "<" : "!=") + myList.get(mySecond) + "}";
+			return "{" + getList().get(myFirst) + (myOrdered ? "<" : "!=") + getList().get(mySecond) + "}";
 		}
 	}
 }
@@ -0,0 +1,43 @@
+// Copyright 2000-2019 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.java.analysis.impl.codeInspection.dataFlow;
+
+/**
+ * Counts the memory states holding a structure which is shared between a state and its copies until modified.
+ * A holder which is about to modify the structure copies it only if the structure is still held by others,
+ * so after a fork the last remaining holder modifies it in place.
+ * <p>
+ * Holders which are dropped without modifying the structure are not counted off, so the count never goes too low.
+ */
+final class SharedHolders
+{
+	private int myCount = 1;
+
+	/**
+	 * Registers one more holder of the structure.
+	 */
+	SharedHolders share()
+	{
+		myCount++;
+		return this;
+	}
+
+	boolean isShared()
+	{
+		return myCount > 1;
+	}
+
+	/**
+	 * Called by a holder before modifying the structure.
+	 *
+	 * @return true if the structure is held by others: the caller stops holding it and must modify its own copy
+	 */
+	boolean release()
+	{
+		if(myCount == 1)
+		{
+			return false;
+		}
+		myCount--;
+		return true;
+	}
+}
@@ -76,6 +76,14 @@ final class StateMerger {
     return null;
   }
 
+  /**
+   * Drops everything cached for the state, must be called before the state is modified.
+   */
+  private void forget(@Nonnull DfaMemoryStateImpl state) {
+    myFacts.remove(state);
+    myCopyCache.remove(state);
+  }
+
   private
   @Nonnull
   MultiMap<Fact, DfaMemoryStateImpl> createFactToStateMap(@Nonnull List<DfaMemoryStateImpl> states) {
@@ -214,6 +222,7 @@ final class StateMerger {
     }
     return StreamEx.ofValues(merged).mapPartial(list -> list.stream().reduce((a, b) -> {
       assert a.getMergeabilityKey().equals(b.getMergeabilityKey());
+      forget(a);
       a.merge(b);
       return a;
     })).toList();
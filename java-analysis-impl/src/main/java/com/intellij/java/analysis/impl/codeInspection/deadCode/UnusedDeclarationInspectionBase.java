@@ -31,7 +31,6 @@ import com.intellij.java.analysis.codeInspection.ex.EntryPointProvider;
 import com.intellij.java.analysis.codeInspection.ex.EntryPointState;
 import com.intellij.java.analysis.codeInspection.ex.EntryPointsManager;
 import com.intellij.java.analysis.codeInspection.reference.*;
-import com.intellij.java.analysis.impl.codeInspection.reference.RefClassImpl;
 import com.intellij.java.analysis.impl.codeInspection.reference.RefJavaElementImpl;
 import com.intellij.java.analysis.impl.codeInspection.unusedSymbol.UnusedSymbolLocalInspectionBase;
 import com.intellij.java.analysis.impl.codeInspection.util.RefFilter;
@@ -766,8 +765,6 @@ public abstract class UnusedDeclarationInspectionBase extends GlobalInspectionTo
 
 	public void checkForReachables(@Nonnull final GlobalInspectionContext context)
 	{
-		CodeScanner codeScanner = new CodeScanner();
-
 		// Cleanup previous reachability information.
 		context.getRefManager().iterate(new RefJavaVisitor()
 		{
@@ -786,10 +783,10 @@ public abstract class UnusedDeclarationInspectionBase extends GlobalInspectionTo
 			}
 		});
 
-
+		CodeScanner codeScanner = new CodeScanner();
 		for(RefElement entry : getEntryPointsManager().getEntryPoints())
 		{
-			entry.accept(codeScanner);
+			codeScanner.scan(entry);
 		}
 
 		while(codeScanner.newlyInstantiatedClassesCount() != 0)
@@ -804,35 +801,76 @@ public abstract class UnusedDeclarationInspectionBase extends GlobalInspectionTo
 		return getJavaContext().getEntryPointsManager(getContext().getRefManager());
 	}
 
-	private static class CodeScanner extends RefJavaVisitor
+	/**
+	 * Walks the reference graph with an explicit stack in the order a recursive visitor would,
+	 * so long chains of references don't overflow the thread stack.
+	 */
+	private static class CodeScanner
 	{
 		private final Map<RefClass, Set<RefMethod>> myClassIDtoMethods = new HashMap<>();
 		private final Set<RefClass> myInstantiatedClasses = new HashSet<>();
 		private int myInstantiatedClassesCount;
 		private final Set<RefMethod> myProcessedMethods = new HashSet<>();
+		// elements to visit; the classes at the positions set in myInstantiateMarks are to be instantiated instead
+		private final List<RefElement> myStack = new ArrayList<>();
+		private final BitSet myInstantiateMarks = new BitSet();
 
-		@Override
-		public void visitMethod(@Nonnull RefMethod method)
+		private void scan(RefElement entry)
+		{
+			push(entry);
+			scan();
+		}
+
+		private void scan()
+		{
+			while(!myStack.isEmpty())
+			{
+				final int top = myStack.size() - 1;
+				final RefElement element = myStack.remove(top);
+				if(myInstantiateMarks.get(top))
+				{
+					myInstantiateMarks.clear(top);
+					addInstantiatedClass((RefClass) element);
+				}
+				else if(element instanceof RefMethod)
+				{
+					visitMethod((RefMethod) element);
+				}
+				else if(element instanceof RefClass)
+				{
+					visitClass((RefClass) element);
+				}
+				else if(element instanceof RefField)
+				{
+					visitField((RefField) element);
+				}
+			}
+		}
+
+		// Pushes happen in the reverse order of the recursive calls, so that the first one is popped first.
+
+		private void visitMethod(@Nonnull RefMethod method)
 		{
 			if(!myProcessedMethods.contains(method))
 			{
 				// Process class's static intitializers
 				if(method.isStatic() || method.isConstructor())
 				{
+					myProcessedMethods.add(method);
+					makeClassInitializersReachable(method.getOwnerClass());
+					makeContentReachable((RefJavaElementImpl) method);
 					if(method.isConstructor())
 					{
-						addInstantiatedClass(method.getOwnerClass());
+						pushInstantiation(method.getOwnerClass());
 					}
 					else
 					{
-						((RefClassImpl) method.getOwnerClass()).setReachable(true);
+						((RefJavaElementImpl) method.getOwnerClass()).setReachable(true);
 					}
-					myProcessedMethods.add(method);
-					makeContentReachable((RefJavaElementImpl) method);
-					makeClassInitializersReachable(method.getOwnerClass());
 				}
 				else
 				{
+					pushAll(method.getDerivedMethods());
 					if(isClassInstantiated(method.getOwnerClass()))
 					{
 						myProcessedMethods.add(method);
@@ -842,38 +880,30 @@ public abstract class UnusedDeclarationInspectionBase extends GlobalInspectionTo
 					{
 						addDelayedMethod(method);
 					}
-
-					for(RefMethod refSub : method.getDerivedMethods())
-					{
-						visitMethod(refSub);
-					}
 				}
 			}
 		}
 
-		@Override
-		public void visitClass(@Nonnull RefClass refClass)
+		private void visitClass(@Nonnull RefClass refClass)
 		{
 			boolean alreadyActive = refClass.isReachable();
-			((RefClassImpl) refClass).setReachable(true);
+			((RefJavaElementImpl) refClass).setReachable(true);
 
+			pushInstantiation(refClass);
 			if(!alreadyActive)
 			{
 				// Process class's static intitializers.
 				makeClassInitializersReachable(refClass);
 			}
-
-			addInstantiatedClass(refClass);
 		}
 
-		@Override
-		public void visitField(@Nonnull RefField field)
+		private void visitField(@Nonnull RefField field)
 		{
 			// Process class's static intitializers.
 			if(!field.isReachable())
 			{
-				makeContentReachable((RefJavaElementImpl) field);
 				makeClassInitializersReachable(field.getOwnerClass());
+				makeContentReachable((RefJavaElementImpl) field);
 			}
 		}
 
@@ -881,36 +911,27 @@ public abstract class UnusedDeclarationInspectionBase extends GlobalInspectionTo
 		{
 			if(myInstantiatedClasses.add(refClass))
 			{
-				((RefClassImpl) refClass).setReachable(true);
+				((RefJavaElementImpl) refClass).setReachable(true);
 				myInstantiatedClassesCount++;
 
-				final List<RefMethod> refMethods = refClass.getLibraryMethods();
-				for(RefMethod refMethod : refMethods)
-				{
-					refMethod.accept(this);
-				}
-				for(RefClass baseClass : refClass.getBaseClasses())
+				final List<RefClass> baseClasses = new ArrayList<>(refClass.getBaseClasses());
+				for(int i = baseClasses.size() - 1; i >= 0; i--)
 				{
-					addInstantiatedClass(baseClass);
+					pushInstantiation(baseClasses.get(i));
 				}
+				pushAll(refClass.getLibraryMethods());
 			}
 		}
 
 		private void makeContentReachable(RefJavaElementImpl refElement)
 		{
 			refElement.setReachable(true);
-			for(RefElement refCallee : refElement.getOutReferences())
-			{
-				refCallee.accept(this);
-			}
+			pushAll(refElement.getOutReferences());
 		}
 
 		private void makeClassInitializersReachable(RefClass refClass)
 		{
-			for(RefElement refCallee : refClass.getOutReferences())
-			{
-				refCallee.accept(this);
-			}
+			pushAll(refClass.getOutReferences());
 		}
 
 		private void addDelayedMethod(RefMethod refMethod)
@@ -929,6 +950,26 @@ public abstract class UnusedDeclarationInspectionBase extends GlobalInspectionTo
 			return myInstantiatedClasses.contains(refClass);
 		}
 
+		private void pushAll(Collection<? extends RefElement> elements)
+		{
+			final List<RefElement> list = new ArrayList<>(elements);
+			for(int i = list.size() - 1; i >= 0; i--)
+			{
+				push(list.get(i));
+			}
+		}
+
+		private void push(RefElement element)
+		{
+			myStack.add(element);
+		}
+
+		private void pushInstantiation(RefClass refClass)
+		{
+			myInstantiateMarks.set(myStack.size());
+			myStack.add(refClass);
+		}
+
 		private int newlyInstantiatedClassesCount()
 		{
 			return myInstantiatedClassesCount;
@@ -952,7 +993,7 @@ public abstract class UnusedDeclarationInspectionBase extends GlobalInspectionTo
 						RefMethod[] arMethods = methods.toArray(new RefMethod[methods.size()]);
 						for(RefMethod arMethod : arMethods)
 						{
-							arMethod.accept(this);
+							scan(arMethod);
 						}
 					}
 				}
@@ -0,0 +1,113 @@
+// Copyright 2000-2019 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.java.analysis.impl.codeInspection.java15api;
+
+import com.intellij.java.language.LanguageLevel;
+import jakarta.annotation.Nonnull;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Language levels the API listed in the {@code api*.txt} files is forbidden at, in one open addressing table
+ * keyed by 64-bit hashes of the signatures: a lookup is a single probe and the signature string is never built.
+ * <p>
+ * A hash collision would report an API which isn't listed, with a few thousand signatures it isn't to be expected.
+ */
+final class ForbiddenApiIndex {
+  private final long[] myHashes;
+  // bit masks of the ordinals of the language levels the API is listed for
+  private final long[] myLevels;
+  private final int myMask;
+  // per language level, the levels checked from it on: up to the first level without a file
+  private final long[] myChains = new long[LanguageLevel.values().length + 1];
+
+  private ForbiddenApiIndex(int size) {
+    int capacity = Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1;
+    myHashes = new long[capacity];
+    myLevels = new long[capacity];
+    myMask = capacity - 1;
+  }
+
+  /**
+   * @param signatures API introduced right after every language level, empty for the levels whose list is missing
+   */
+  @Nonnull
+  static ForbiddenApiIndex create(@Nonnull Map<LanguageLevel, ? extends Collection<String>> signatures) {
+    int size = 0;
+    for (Collection<String> levelSignatures : signatures.values()) {
+      size += levelSignatures.size();
+    }
+
+    ForbiddenApiIndex index = new ForbiddenApiIndex(size);
+    for (int ordinal = LanguageLevel.values().length - 1; ordinal >= 0; ordinal--) {
+      if (signatures.containsKey(LanguageLevel.values()[ordinal])) {
+        index.myChains[ordinal] = 1L << ordinal | index.myChains[ordinal + 1];
+      }
+    }
+    for (Map.Entry<LanguageLevel, ? extends Collection<String>> entry : signatures.entrySet()) {
+      long level = 1L << entry.getKey().ordinal();
+      for (String signature : entry.getValue()) {
+        index.add(new Hasher().append(signature).getHash(), level);
+      }
+    }
+    return index;
+  }
+
+  /**
+   * @return the first language level starting from the given one the API is forbidden at, null if there is none
+   * before a level without a file
+   */
+  LanguageLevel getLastIncompatibleLanguageLevel(long hash, @Nonnull LanguageLevel languageLevel) {
+    long levels = myLevels[find(hash)] & myChains[languageLevel.ordinal()];
+    return levels == 0 ? null : LanguageLevel.values()[Long.numberOfTrailingZeros(levels)];
+  }
+
+  private void add(long hash, long level) {
+    int slot = find(hash);
+    myHashes[slot] = hash;
+    myLevels[slot] |= level;
+  }
+
+  private int find(long hash) {
+    int slot = (int) mix(hash) & myMask;
+    while (myHashes[slot] != 0 && myHashes[slot] != hash) {
+      slot = (slot + 1) & myMask;
+    }
+    return slot;
+  }
+
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  /**
+   * 64-bit FNV-1a hash of a signature fed in parts, equal to the hash of the whole signature string.
+   */
+  static final class Hasher {
+    private long myHash = 0xcbf29ce484222325L;
+
+    @Nonnull
+    Hasher append(char c) {
+      myHash = (myHash ^ c) * 0x100000001b3L;
+      return this;
+    }
+
+    @Nonnull
+    Hasher append(@Nonnull CharSequence s) {
+      for (int i = 0; i < s.length(); i++) {
+        append(s.charAt(i));
+      }
+      return this;
+    }
+
+    /**
+     * @return the hash, never 0 which marks the free slots of the table
+     */
+    long getHash() {
+      return myHash == 0 ? 1 : myHash;
+    }
+  }
+}
@@ -28,7 +28,6 @@ import consulo.ui.ex.awt.*;
 import consulo.util.io.FileUtil;
 import consulo.util.lang.ObjectUtil;
 import consulo.util.lang.lazy.LazyValue;
-import consulo.util.lang.ref.SoftReference;
 import consulo.util.xml.serializer.InvalidDataException;
 import consulo.util.xml.serializer.WriteExternalException;
 import jakarta.annotation.Nonnull;
@@ -41,11 +40,11 @@ import java.awt.event.ActionListener;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.lang.ref.Reference;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
@@ -57,12 +56,21 @@ public class Java15APIUsageInspection extends AbstractBaseJavaLocalInspectionToo
 
   private static final String EFFECTIVE_LL = "effectiveLL";
 
-  private static final Map<LanguageLevel, Reference<Set<String>>> ourForbiddenAPI = new EnumMap<>(LanguageLevel.class);
   private static final Supplier<Set<String>> ourIgnored16ClassesAPI = LazyValue.notNull(() -> loadForbiddenApi("ignore16List.txt"));
   private static final Map<LanguageLevel, String> ourPresentableShortMessage = new EnumMap<>(LanguageLevel.class);
 
   private static final LanguageLevel ourHighestKnownLanguage = LanguageLevel.JDK_19;
 
+  private static final Supplier<ForbiddenApiIndex> ourForbiddenApiIndex = LazyValue.notNull(() -> {
+    Map<LanguageLevel, Set<String>> signatures = new EnumMap<>(LanguageLevel.class);
+    for (LanguageLevel languageLevel : ourPresentableShortMessage.keySet()) {
+      if (languageLevel.compareTo(ourHighestKnownLanguage) <= 0) {
+        signatures.put(languageLevel, loadForbiddenApi("api" + getShortName(languageLevel) + ".txt"));
+      }
+    }
+    return ForbiddenApiIndex.create(signatures);
+  });
+
   static {
     ourPresentableShortMessage.put(LanguageLevel.JDK_1_3, "1.4");
     ourPresentableShortMessage.put(LanguageLevel.JDK_1_4, "1.5");
@@ -150,20 +158,6 @@ public class Java15APIUsageInspection extends AbstractBaseJavaLocalInspectionToo
     return panel;
   }
 
-  @Nullable
-  private static Set<String> getForbiddenApi(@Nonnull LanguageLevel languageLevel) {
-    if (!ourPresentableShortMessage.containsKey(languageLevel)) {
-      return null;
-    }
-    Reference<Set<String>> ref = ourForbiddenAPI.get(languageLevel);
-    Set<String> result = SoftReference.dereference(ref);
-    if (result == null) {
-      result = loadForbiddenApi("api" + getShortName(languageLevel) + ".txt");
-      ourForbiddenAPI.put(languageLevel, new SoftReference<>(result));
-    }
-    return result;
-  }
-
   private static Set<String> loadForbiddenApi(String fileName) {
     URL resource = Java15APIUsageInspection.class.getResource(fileName);
     if (resource == null) {
@@ -452,10 +446,12 @@ public class Java15APIUsageInspection extends AbstractBaseJavaLocalInspectionToo
       return null;
     }
 
-    Set<String> forbiddenApi = getForbiddenApi(languageLevel);
-    String signature = getSignature(member);
-    if (forbiddenApi != null && signature != null) {
-      LanguageLevel lastIncompatibleLanguageLevel = getLastIncompatibleLanguageLevelForSignature(signature, languageLevel, forbiddenApi);
+    if (!ourPresentableShortMessage.containsKey(languageLevel)) {
+      return null;
+    }
+    ForbiddenApiIndex.Hasher hasher = new ForbiddenApiIndex.Hasher();
+    if (appendSignature(member, hasher::append)) {
+      LanguageLevel lastIncompatibleLanguageLevel = ourForbiddenApiIndex.get().getLastIncompatibleLanguageLevel(hasher.getHash(), languageLevel);
       if (lastIncompatibleLanguageLevel != null) {
         return lastIncompatibleLanguageLevel;
       }
@@ -464,49 +460,52 @@ public class Java15APIUsageInspection extends AbstractBaseJavaLocalInspectionToo
 
   }
 
-  private static LanguageLevel getLastIncompatibleLanguageLevelForSignature(@Nonnull String signature, @Nonnull LanguageLevel languageLevel, @Nonnull Set<String> forbiddenApi) {
-    if (forbiddenApi.contains(signature)) {
-      return languageLevel;
-    }
-    if (languageLevel.compareTo(ourHighestKnownLanguage) == 0) {
-      return null;
-    }
-    LanguageLevel nextLanguageLevel = LanguageLevel.values()[languageLevel.ordinal() + 1];
-    Set<String> nextForbiddenApi = getForbiddenApi(nextLanguageLevel);
-    return nextForbiddenApi != null ? getLastIncompatibleLanguageLevelForSignature(signature, nextLanguageLevel, nextForbiddenApi) : null;
-  }
-
   /**
-   * please leave public for JavaAPIUsagesInspectionTest#testCollectSinceApiUsages
+   * Feeds {@link #getSignature} of the member to the sink part by part, so it can be hashed without concatenating it.
+   *
+   * @return false if the member has no signature
    */
-  @Nullable
-  public static String getSignature(@Nullable PsiMember member) {
+  private static boolean appendSignature(@Nullable PsiMember member, @Nonnull Consumer<CharSequence> sink) {
     if (member instanceof PsiClass) {
-      return ((PsiClass) member).getQualifiedName();
+      String qualifiedName = ((PsiClass) member).getQualifiedName();
+      if (qualifiedName == null) {
+        return false;
+      }
+      sink.accept(qualifiedName);
+      return true;
     }
     if (member instanceof PsiField) {
-      String containingClass = getSignature(member.getContainingClass());
-      return containingClass == null ? null : containingClass + "#" + member.getName();
+      if (!appendSignature(member.getContainingClass(), sink)) {
+        return false;
+      }
+      sink.accept("#");
+      sink.accept(member.getName());
+      return true;
     }
     if (member instanceof PsiMethod) {
       final PsiMethod method = (PsiMethod) member;
-      String containingClass = getSignature(member.getContainingClass());
-      if (containingClass == null) {
-        return null;
+      if (!appendSignature(member.getContainingClass(), sink)) {
+        return false;
       }
-
-      StringBuilder buf = new StringBuilder();
-      buf.append(containingClass);
-      buf.append('#');
-      buf.append(method.getName());
-      buf.append('(');
+      sink.accept("#");
+      sink.accept(method.getName());
+      sink.accept("(");
       for (PsiType type : method.getSignature(PsiSubstitutor.EMPTY).getParameterTypes()) {
-        buf.append(type.getCanonicalText());
-        buf.append(";");
+        sink.accept(type.getCanonicalText());
+        sink.accept(";");
       }
-      buf.append(')');
-      return buf.toString();
+      sink.accept(")");
+      return true;
     }
-    return null;
+    return false;
+  }
+
+  /**
+   * please leave public for JavaAPIUsagesInspectionTest#testCollectSinceApiUsages
+   */
+  @Nullable
+  public static String getSignature(@Nullable PsiMember member) {
+    StringBuilder buf = new StringBuilder();
+    return appendSignature(member, buf::append) ? buf.toString() : null;
   }
 }
@@ -145,6 +145,29 @@ public class BackwardDependenciesStorage implements Flushable, Disposable
 		}
 	}
 
+	/**
+	 * @return sorted union of the classes referencing any of the given classes, excluding self-references
+	 */
+	public synchronized int[] getReferencers(int[] classQNames) throws CacheCorruptedException
+	{
+		try
+		{
+			final List<int[]> referencers = new ArrayList<int[]>(classQNames.length);
+			for(int classQName : classQNames)
+			{
+				if(myMap.containsMapping(classQName))
+				{
+					referencers.add(myCache.get(classQName).getReferencers());
+				}
+			}
+			return SortedIntArrays.union(referencers);
+		}
+		catch(Throwable e)
+		{
+			throw new CacheCorruptedException(e);
+		}
+	}
+
 	private static Dependency[] convertToDependencies(int classToSkip, Set<ReferencerItem> data)
 	{
 		final IntObjectMap<Dependency> dependencies = IntMaps.newIntObjectHashMap();
@@ -379,6 +402,8 @@ public class BackwardDependenciesStorage implements Flushable, Disposable
 		private Set<ReferencerItem> myAdded = new HashSet<ReferencerItem>();
 
 		private Set<ReferencerItem> myData = null;
+		// sorted qualified names of referencers from myData, or null if not computed since the last change
+		private int[] myReferencers = null;
 		private boolean myIsDirty = false;
 
 		public ReferencerSetHolder(Integer key)
@@ -388,6 +413,7 @@ public class BackwardDependenciesStorage implements Flushable, Disposable
 
 		public void addReferencer(ReferencerItem referencer)
 		{
+			myReferencers = null;
 			if(myData != null)
 			{
 				myIsDirty |= myData.add(referencer);
@@ -398,6 +424,7 @@ public class BackwardDependenciesStorage implements Flushable, Disposable
 
 		public void removeReferencer(int qName)
 		{
+			myReferencers = null;
 			if(myData != null)
 			{
 				myIsDirty |= removeAllReferencerItems(myData, qName);
@@ -441,6 +468,25 @@ public class BackwardDependenciesStorage implements Flushable, Disposable
 			return Collections.unmodifiableSet(myData);
 		}
 
+		public int[] getReferencers() throws IOException
+		{
+			if(myReferencers == null)
+			{
+				final Set<ReferencerItem> data = getData();
+				final int[] referencers = new int[data.size()];
+				int size = 0;
+				for(ReferencerItem item : data)
+				{
+					if(item.qName != myKey.intValue())
+					{
+						referencers[size++] = item.qName;
+					}
+				}
+				myReferencers = SortedIntArrays.sortedUnique(Arrays.copyOf(referencers, size));
+			}
+			return myReferencers;
+		}
+
 	}
 
 	private static class MyDataExternalizer implements DataExternalizer<DependenciesSet>
@@ -141,6 +141,18 @@ public class Cache {
     }
   }
 
+  /**
+   * Imports class info parsed in advance, see {@link JavaDependencyCache#parseClassFile(File, byte[])}.
+   */
+  public int importClassInfo(@Nonnull ClassInfo classInfo) throws CacheCorruptedException {
+    try {
+      myQNameToClassInfoMap.addValue(classInfo.getQualifiedName(), 0, classInfo);
+      return classInfo.getQualifiedName();
+    } catch (Throwable e) {
+      throw new CacheCorruptedException(e);
+    }
+  }
+
   public void importClassInfo(Cache fromCache, final int qName) throws CacheCorruptedException {
     try {
       final ClassInfo classInfo = fromCache.getClassInfo(qName);
@@ -417,6 +429,14 @@ public class Cache {
     return myDependencies.getDependencies(classQName);
   }
 
+  /**
+   * @return sorted qualified names of the classes depending on any of the given classes, cheaper than
+   * {@link #getBackDependencies(int)} when the referenced members are not needed
+   */
+  public int[] getBackDependentClasses(final int... classQNames) throws CacheCorruptedException {
+    return myDependencies.getReferencers(classQNames);
+  }
+
   public void wipe() {
     try {
       dispose();
@@ -21,6 +21,7 @@ import consulo.index.io.KeyDescriptor;
 import consulo.index.io.PersistentHashMap;
 import consulo.disposer.Disposable;
 import consulo.logging.Logger;
+import consulo.util.collection.ArrayUtil;
 import consulo.util.collection.primitive.ints.IntSet;
 import consulo.util.collection.primitive.ints.IntSets;
 import jakarta.annotation.Nonnull;
@@ -35,6 +36,8 @@ import java.util.PrimitiveIterator;
 public class CompilerDependencyStorage<Key> implements Flushable, Disposable
 {
 	private static final Logger LOG = Logger.getInstance("#com.intellij.compiler.make.CompilerDependencyStorage");
+	// marks a chunk with sorted delta-encoded values; cannot be a size of a plain chunk
+	private static final int COMPACT_CHUNK = Integer.MIN_VALUE;
 	protected final PersistentHashMap<Key, int[]> myMap;
 	protected final SLRUCache<Key, IntInfo> myCache;
 	private Key myKeyToRemove;
@@ -45,20 +48,30 @@ public class CompilerDependencyStorage<Key> implements Flushable, Disposable
 		{
 			public void save(DataOutput out, int[] array) throws IOException
 			{
-				out.writeInt(array.length);
-				for(int value : array)
-				{
-					out.writeInt(value);
-				}
+				// the array is sorted, see IntInfo.getValues()
+				out.writeInt(COMPACT_CHUNK);
+				SortedIntArrays.writeDeltas(out, array);
 			}
 
 			public int[] read(DataInput in) throws IOException
 			{
-				final IntSet set = IntSets.newHashSet();
+				int[] values = ArrayUtil.EMPTY_INT_ARRAY;
+				IntSet set = null;
 				DataInputStream stream = (DataInputStream) in;
 				while(stream.available() > 0)
 				{
 					final int size = stream.readInt();
+					if(size == COMPACT_CHUNK)
+					{
+						values = SortedIntArrays.readDeltas(stream);
+						continue;
+					}
+					// appended changes or data written in the plain format
+					if(set == null)
+					{
+						set = IntSets.newHashSet();
+						set.addAll(values);
+					}
 					final int _size = Math.abs(size);
 					for(int idx = 0; idx < _size; idx++)
 					{
@@ -72,7 +85,7 @@ public class CompilerDependencyStorage<Key> implements Flushable, Disposable
 						}
 					}
 				}
-				return set.toArray();
+				return set == null ? values : SortedIntArrays.sortedUnique(set.toArray());
 			}
 		});
 
@@ -152,6 +165,9 @@ public class CompilerDependencyStorage<Key> implements Flushable, Disposable
 		}
 	}
 
+	/**
+	 * @return sorted values stored for the key, the array must not be modified
+	 */
 	public synchronized int[] getValues(Key key) throws IOException
 	{
 		return myCache.get(key).getValues();
@@ -195,11 +211,18 @@ public class CompilerDependencyStorage<Key> implements Flushable, Disposable
 		void write(int value) throws IOException;
 	}
 
+	/**
+	 * Changes of the values stored for a key. Values from the disk are loaded only when requested, and are kept
+	 * as a sorted array along with the changes made since then.
+	 */
 	private class IntInfo
 	{
 		private final IntSet myAdded = IntSets.newHashSet();
 		private final IntSet myRemoved = IntSets.newHashSet();
-		private IntSet myMerged = null;
+		// sorted values from the disk, or null if not loaded
+		private int[] myStored = null;
+		// sorted stored values with the changes applied, or null if not computed since the last change
+		private int[] myValues = null;
 		private final Key myKey;
 
 		public IntInfo(Key key)
@@ -209,10 +232,7 @@ public class CompilerDependencyStorage<Key> implements Flushable, Disposable
 
 		public void add(int value)
 		{
-			if(myMerged != null)
-			{
-				myMerged.add(value);
-			}
+			myValues = null;
 			if(!myRemoved.remove(value))
 			{
 				myAdded.add(value);
@@ -221,10 +241,7 @@ public class CompilerDependencyStorage<Key> implements Flushable, Disposable
 
 		public void remove(int value)
 		{
-			if(myMerged != null)
-			{
-				myMerged.remove(value);
-			}
+			myValues = null;
 			if(!myAdded.remove(value))
 			{
 				myRemoved.add(value);
@@ -238,7 +255,7 @@ public class CompilerDependencyStorage<Key> implements Flushable, Disposable
 
 		public boolean needsCompacting()
 		{
-			return myMerged != null;
+			return myStored != null;
 		}
 
 		public boolean needsFlushing()
@@ -274,31 +291,21 @@ public class CompilerDependencyStorage<Key> implements Flushable, Disposable
 			}
 		}
 
+		/**
+		 * @return sorted values, the array must not be modified
+		 */
 		public int[] getValues() throws IOException
 		{
-			return getMerged().toArray();
-		}
-
-		private IntSet getMerged() throws IOException
-		{
-			if(myMerged == null)
+			if(myValues == null)
 			{
-				myMerged = IntSets.newHashSet();
-				final int[] fromDisk = myMap.get(myKey);
-				if(fromDisk != null)
-				{
-					myMerged.addAll(fromDisk);
-				}
-				if(myRemoved.size() > 0)
-				{
-					myMerged.removeAll(myRemoved.toArray());
-				}
-				if(myAdded.size() > 0)
+				if(myStored == null)
 				{
-					myMerged.addAll(myAdded.toArray());
+					final int[] fromDisk = myMap.get(myKey);
+					myStored = fromDisk != null ? fromDisk : ArrayUtil.EMPTY_INT_ARRAY;
 				}
+				myValues = SortedIntArrays.apply(myStored, myAdded, myRemoved);
 			}
-			return myMerged;
+			return myValues;
 		}
 	}
-}
\ No newline at end of file
+}
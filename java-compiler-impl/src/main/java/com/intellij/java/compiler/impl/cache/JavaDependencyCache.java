@@ -143,6 +143,28 @@ public class JavaDependencyCache implements DependencyCache {
     return qName;
   }
 
+  /**
+   * Parses class file without importing it to the cache. Unlike {@link #reparseClassFile(File, byte[])} may be called
+   * from several threads at once; the result should be imported with {@link #importParsedClass(ClassInfo)}.
+   */
+  @Nonnull
+  public ClassInfo parseClassFile(@Nonnull File file, @Nullable byte[] fileContent) throws ClsFormatException, CacheCorruptedException {
+    SymbolTable symbolTable = getSymbolTable();
+    try {
+      return new ClassInfo(new ClassFileReader(file, symbolTable, fileContent), symbolTable);
+    }
+    catch (Throwable e) {
+      throw new CacheCorruptedException(e);
+    }
+  }
+
+  public int importParsedClass(@Nonnull ClassInfo classInfo) throws CacheCorruptedException {
+    final int qName = getNewClassesCache().importClassInfo(classInfo);
+    addClassToUpdate(qName);
+    addTraverseRoot(qName);
+    return qName;
+  }
+
   // for profiling purposes
   /*
   private static void pause() {
@@ -478,12 +500,10 @@ public class JavaDependencyCache implements DependencyCache {
             }
           }
           if (isSourceDeleted) {
-            Dependency[] backDependencies = getCache().getBackDependencies(qName);
-            for (Dependency backDependency : backDependencies) {
-              if (markTargetClassInfo(backDependency)) {
+            for (int dependentQName : getCache().getBackDependentClasses(qName)) {
+              if (markClass(dependentQName)) {
                 if (LOG.isDebugEnabled()) {
-                  LOG
-                    .debug("Mark dependent class " + backDependency.getClassQualifiedName() + "; reason: no class file found for " + qName);
+                  LOG.debug("Mark dependent class " + dependentQName + "; reason: no class file found for " + qName);
                 }
               }
             }
@@ -634,10 +654,17 @@ public class JavaDependencyCache implements DependencyCache {
 
 
   public SymbolTable getSymbolTable() throws CacheCorruptedException {
-    if (mySymbolTable == null) {
-      mySymbolTable = new SymbolTable(new File(mySymbolTableFilePath));
+    SymbolTable symbolTable = mySymbolTable;
+    if (symbolTable == null) {
+      // class files may be parsed concurrently
+      synchronized (this) {
+        symbolTable = mySymbolTable;
+        if (symbolTable == null) {
+          mySymbolTable = symbolTable = new SymbolTable(new File(mySymbolTableFilePath));
+        }
+      }
     }
-    return mySymbolTable;
+    return symbolTable;
   }
 
   public String resolve(int id) throws CacheCorruptedException {
@@ -208,15 +208,8 @@ class JavaDependencyProcessor {
       // superclass changed == old removed and possibly new added
       // if anything (class or interface) in the superlist was removed, should recompile all subclasses (both direct and indirect)
       // and all back-dependencies of this class and its subclasses
-      markAll(getBackDependencies(), LOG.isDebugEnabled() ? "; reason: deleted items from the superlist or changed superlist generic signature of " + myJavaDependencyCache.resolve(myQName) :
-          "");
-      cacheNavigator.walkSubClasses(myQName, new ClassInfoProcessor() {
-        public boolean process(int classQName) throws CacheCorruptedException {
-          markAll(oldCache.getBackDependencies(classQName), LOG.isDebugEnabled() ? "; reason: deleted items from the superlist or changed superlist generic signature of " +
-              myJavaDependencyCache.resolve(myQName) : "");
-          return true;
-        }
-      });
+      markAllDependentOnHierarchy(cacheNavigator, LOG.isDebugEnabled() ? "; reason: deleted items from the superlist or changed superlist generic signature of " +
+          myJavaDependencyCache.resolve(myQName) : "");
       return;
     }
 
@@ -224,13 +217,7 @@ class JavaDependencyProcessor {
         (JavaMakeUtil.isInterface(oldCache.getFlags(myQName)) && !JavaMakeUtil.isInterface(newCache.getFlags(myQName))) ||
             (!JavaMakeUtil.isInterface(oldCache.getFlags(myQName)) && JavaMakeUtil.isInterface(newCache.getFlags(myQName)));
     if (isKindChanged) {
-      markAll(getBackDependencies(), LOG.isDebugEnabled() ? "; reason: class kind changed (class/interface) " + myJavaDependencyCache.resolve(myQName) : "");
-      cacheNavigator.walkSubClasses(myQName, new ClassInfoProcessor() {
-        public boolean process(int classQName) throws CacheCorruptedException {
-          markAll(oldCache.getBackDependencies(classQName), LOG.isDebugEnabled() ? "; reason: class kind changed (class/interface) " + myJavaDependencyCache.resolve(myQName) : "");
-          return true;
-        }
-      });
+      markAllDependentOnHierarchy(cacheNavigator, LOG.isDebugEnabled() ? "; reason: class kind changed (class/interface) " + myJavaDependencyCache.resolve(myQName) : "");
       return;
     }
 
@@ -547,6 +534,27 @@ class JavaDependencyProcessor {
     }
   }
 
+  /**
+   * Marks classes depending on this class or any of its subclasses.
+   */
+  private void markAllDependentOnHierarchy(JavaDependencyCacheNavigator cacheNavigator, @NonNls String reason) throws CacheCorruptedException {
+    final IntSet hierarchy = IntSets.newHashSet();
+    hierarchy.add(myQName);
+    cacheNavigator.walkSubClasses(myQName, new ClassInfoProcessor() {
+      public boolean process(int classQName) {
+        hierarchy.add(classQName);
+        return true;
+      }
+    });
+    for (int dependentQName : myJavaDependencyCache.getCache().getBackDependentClasses(hierarchy.toArray())) {
+      if (myJavaDependencyCache.markClass(dependentQName)) {
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Mark dependent class " + myJavaDependencyCache.resolve(dependentQName) + reason);
+        }
+      }
+    }
+  }
+
   private static void extractFieldNames(Collection<MemberInfo> fromCollection, IntSet toCollection) {
     for (final Object aFromCollection : fromCollection) {
       MemberInfo memberInfo = (MemberInfo) aFromCollection;
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2000-2009 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.compiler.impl.cache;
+
+import consulo.index.io.data.DataInputOutputUtil;
+import consulo.util.collection.ArrayUtil;
+import consulo.util.collection.primitive.ints.IntSet;
+
+import jakarta.annotation.Nonnull;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Operations on sets of ids kept as sorted int arrays without duplicates, the compact form the dependency storages
+ * keep referencer and subclass sets in.
+ */
+final class SortedIntArrays
+{
+	private SortedIntArrays()
+	{
+	}
+
+	@Nonnull
+	static int[] sortedUnique(@Nonnull int[] values)
+	{
+		if(values.length < 2)
+		{
+			return values;
+		}
+		Arrays.sort(values);
+		int size = 1;
+		for(int i = 1; i < values.length; i++)
+		{
+			if(values[i] != values[size - 1])
+			{
+				values[size++] = values[i];
+			}
+		}
+		return size == values.length ? values : Arrays.copyOf(values, size);
+	}
+
+	/**
+	 * @return sorted union of the given sorted arrays
+	 */
+	@Nonnull
+	static int[] union(@Nonnull List<int[]> arrays)
+	{
+		if(arrays.isEmpty())
+		{
+			return ArrayUtil.EMPTY_INT_ARRAY;
+		}
+		if(arrays.size() == 1)
+		{
+			return arrays.get(0);
+		}
+		int total = 0;
+		for(int[] array : arrays)
+		{
+			total += array.length;
+		}
+		int[] result = new int[total];
+		int size = 0;
+		for(int[] array : arrays)
+		{
+			System.arraycopy(array, 0, result, size, array.length);
+			size += array.length;
+		}
+		return sortedUnique(result);
+	}
+
+	/**
+	 * @return sorted array of the values from {@code base} which are not in {@code removed}, plus the values from {@code added}
+	 */
+	@Nonnull
+	static int[] apply(@Nonnull int[] base, @Nonnull IntSet added, @Nonnull IntSet removed)
+	{
+		if(added.size() == 0 && removed.size() == 0)
+		{
+			return base;
+		}
+		int[] result = new int[base.length + added.size()];
+		int size = 0;
+		for(int value : base)
+		{
+			if(!removed.contains(value))
+			{
+				result[size++] = value;
+			}
+		}
+		for(int value : added.toArray())
+		{
+			result[size++] = value;
+		}
+		return sortedUnique(size == result.length ? result : Arrays.copyOf(result, size));
+	}
+
+	/**
+	 * Writes sorted array as a count followed by variable-length gaps between the neighbouring values.
+	 */
+	static void writeDeltas(@Nonnull DataOutput out, @Nonnull int[] sorted) throws IOException
+	{
+		DataInputOutputUtil.writeINT(out, sorted.length);
+		int previous = 0;
+		for(int value : sorted)
+		{
+			DataInputOutputUtil.writeINT(out, value - previous);
+			previous = value;
+		}
+	}
+
+	@Nonnull
+	static int[] readDeltas(@Nonnull DataInput in) throws IOException
+	{
+		int[] result = new int[DataInputOutputUtil.readINT(in)];
+		int previous = 0;
+		for(int i = 0; i < result.length; i++)
+		{
+			previous += DataInputOutputUtil.readINT(in);
+			result[i] = previous;
+		}
+		return result;
+	}
+}
@@ -25,43 +25,28 @@ import consulo.compiler.CacheCorruptedException;
 import consulo.compiler.CompilerBundle;
 import consulo.index.io.PersistentEnumerator;
 import consulo.index.io.PersistentStringEnumerator;
-import consulo.util.collection.SLRUCache;
 import consulo.util.io.FileUtil;
 
 import jakarta.annotation.Nonnull;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Bidirectional mapping of symbols (class names, descriptors, signatures) to int ids, persisted in a {@link PersistentStringEnumerator}.
+ * <p>
+ * The table is used by several class parsing threads at once: lookups of already known symbols are served from concurrent
+ * in-memory caches without locking, only the enumerator itself is accessed under the lock.
+ */
 public class SymbolTable {
-  private final PersistentStringEnumerator myTrie;
-
-  // both caches should have equal size
-  private static final int STRING_CACHE_SIZE = 1024;
-
-  private final SLRUCache<Integer, String> myIndexStringCache = new SLRUCache<Integer, String>(STRING_CACHE_SIZE * 2, STRING_CACHE_SIZE) {
-    @Nonnull
-    public String createValue(Integer key) {
-      try {
-        return myTrie.valueOf(key.intValue());
-      }
-      catch (IOException e) {
-        throw new RuntimeException(e);
-      }
-    }
-  };
-
-  private final SLRUCache<String, Integer> myStringIndexCache = new SLRUCache<String, Integer>(STRING_CACHE_SIZE * 2, STRING_CACHE_SIZE) {
-    @Nonnull
-    public Integer createValue(String key) {
-      try {
-        return myTrie.enumerate(key);
-      }
-      catch (IOException e) {
-        throw new RuntimeException(e);
-      }
-    }
-  };
+  // when exceeded, the cache is cleared rather than evicted entry by entry: the symbols of the classes being imported
+  // are usually either very hot (java.lang.Object, common descriptors) or used by a single class only
+  private static final int CACHE_SIZE_LIMIT = 64 * 1024;
 
+  private final PersistentStringEnumerator myTrie;
+  private final Object myLock = new Object();
+  private final ConcurrentHashMap<String, Integer> myStringIndexCache = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Integer, String> myIndexStringCache = new ConcurrentHashMap<>();
 
   public SymbolTable(File file) throws CacheCorruptedException {
     try {
@@ -78,44 +63,71 @@ public class SymbolTable {
     }
   }
 
-  public synchronized int getId(@Nonnull String symbol) throws CacheCorruptedException {
+  public int getId(@Nonnull String symbol) throws CacheCorruptedException {
     if (symbol.length() == 0) {
       return -1;
     }
-    try {
-      return myStringIndexCache.get(symbol);
+    Integer cached = myStringIndexCache.get(symbol);
+    if (cached != null) {
+      return cached;
     }
-    catch (RuntimeException e) {
-      if (e.getCause() instanceof IOException) {
-        throw new CacheCorruptedException(e.getCause());
+    int id;
+    try {
+      synchronized (myLock) {
+        id = myTrie.enumerate(symbol);
       }
-      throw e;
     }
+    catch (IOException e) {
+      throw new CacheCorruptedException(e);
+    }
+    cache(symbol, id);
+    return id;
   }
 
-  public synchronized String getSymbol(int id) throws CacheCorruptedException {
+  public String getSymbol(int id) throws CacheCorruptedException {
     if (id == -1) {
       return "";
     }
-    try {
-      return myIndexStringCache.get(id);
+    String cached = myIndexStringCache.get(id);
+    if (cached != null) {
+      return cached;
     }
-    catch (RuntimeException e) {
-      if (e.getCause() instanceof IOException) {
-        throw new CacheCorruptedException(e.getCause());
+    String symbol;
+    try {
+      synchronized (myLock) {
+        symbol = myTrie.valueOf(id);
       }
-      throw e;
     }
+    catch (IOException e) {
+      throw new CacheCorruptedException(e);
+    }
+    if (symbol != null) {
+      cache(symbol, id);
+    }
+    return symbol;
   }
 
-  public synchronized void dispose() throws CacheCorruptedException {
-    try {
-      myIndexStringCache.clear();
+  private void cache(@Nonnull String symbol, int id) {
+    if (myStringIndexCache.size() >= CACHE_SIZE_LIMIT) {
       myStringIndexCache.clear();
-      myTrie.close(); // will call "flush()" if needed
     }
-    catch (IOException e) {
-      throw new CacheCorruptedException(e);
+    if (myIndexStringCache.size() >= CACHE_SIZE_LIMIT) {
+      myIndexStringCache.clear();
+    }
+    myStringIndexCache.put(symbol, id);
+    myIndexStringCache.put(id, symbol);
+  }
+
+  public void dispose() throws CacheCorruptedException {
+    synchronized (myLock) {
+      try {
+        myIndexStringCache.clear();
+        myStringIndexCache.clear();
+        myTrie.close(); // will call "flush()" if needed
+      }
+      catch (IOException e) {
+        throw new CacheCorruptedException(e);
+      }
     }
   }
 }
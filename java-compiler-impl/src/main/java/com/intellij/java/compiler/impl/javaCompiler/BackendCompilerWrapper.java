@@ -20,6 +20,7 @@ import com.intellij.java.compiler.impl.OutputParser;
 import com.intellij.java.compiler.impl.cache.Cache;
 import com.intellij.java.compiler.impl.cache.JavaDependencyCache;
 import com.intellij.java.compiler.impl.cache.JavaMakeUtil;
+import com.intellij.java.compiler.impl.classParsing.ClassInfo;
 import com.intellij.java.language.psi.JavaPsiFacade;
 import com.intellij.java.language.psi.PsiClass;
 import com.intellij.java.language.util.cls.ClsFormatException;
@@ -70,6 +71,7 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Eugene Zhuravlev
@@ -93,6 +95,8 @@ public class BackendCompilerWrapper
 	private final ProjectFileIndex myProjectFileIndex;
 	@NonNls
 	private static final String PACKAGE_ANNOTATION_FILE_NAME = "package-info.java";
+	// number of class files read and parsed at once while the compiler is running
+	private static final int PARSING_PARALLELISM = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
 	private static final FileObject ourStopThreadToken = new FileObject(new File(""), new byte[0]);
 	public final Map<String, Set<CompiledClass>> myFileNameToSourceMap = new HashMap<>();
 	private final Set<VirtualFile> myProcessedPackageInfos = new HashSet<>();
@@ -529,6 +533,10 @@ public class BackendCompilerWrapper
 				}
 
 				waitABit(classParsingFuture);
+				if(LOG.isDebugEnabled())
+				{
+					LOG.debug("Class files parsed for " + chunk + ": " + myStatistics);
+				}
 				waitABit(errorParsingFuture);
 				waitABit(outputParsingFuture);
 
@@ -1064,9 +1072,18 @@ public class BackendCompilerWrapper
 		//myCompileContext.getProgressIndicator().setFraction(1.0* myProcessedFilesCount /myTotalFilesToCompile);
 	}
 
+	/**
+	 * Imports class files produced by the compiler into the dependency cache.
+	 * <p>
+	 * Reading and parsing of the class files is done by up to {@link #PARSING_PARALLELISM} pooled workers, while the parsed classes
+	 * are imported to the cache by the handler thread one by one in the order the compiler produced them, so the cache contents
+	 * and the reported messages do not depend on the parsing schedule.
+	 */
 	public class ClassParsingHandler implements Runnable
 	{
 		private final BlockingQueue<FileObject> myPaths = new ArrayBlockingQueue<>(50000);
+		// files being parsed, in the order of import
+		private final Deque<Pair<FileObject, Future<ParsedClass>>> myParsing = new ArrayDeque<>();
 		private CacheCorruptedException myError = null;
 		private final JavaDependencyCache myJavaDependencyCache;
 		private final Map<File, FileObject> myParsingInfo;
@@ -1087,13 +1104,27 @@ public class BackendCompilerWrapper
 			{
 				while(true)
 				{
-					FileObject path = myPaths.take();
+					// do not block while there are parsed classes to import
+					FileObject path = myParsing.isEmpty() ? myPaths.take() : myPaths.poll();
+					if(path == null)
+					{
+						importNext();
+						continue;
+					}
 
 					if(path == ourStopThreadToken)
 					{
 						break;
 					}
-					processPath(path);
+					if(myParsing.size() >= PARSING_PARALLELISM * 2)
+					{
+						importNext();
+					}
+					myParsing.add(Pair.create(path, AppExecutorUtil.getAppExecutorService().submit(() -> parse(path))));
+				}
+				while(!myParsing.isEmpty())
+				{
+					importNext();
 				}
 			}
 			catch(InterruptedException e)
@@ -1106,6 +1137,11 @@ public class BackendCompilerWrapper
 			}
 			finally
 			{
+				for(Pair<FileObject, Future<ParsedClass>> pair : myParsing)
+				{
+					pair.getSecond().cancel(false);
+				}
+				myParsing.clear();
 				processing = false;
 			}
 		}
@@ -1124,15 +1160,49 @@ public class BackendCompilerWrapper
 			myPaths.offer(ourStopThreadToken);
 		}
 
-		private void processPath(FileObject fileObject) throws CacheCorruptedException
+		@Nonnull
+		private ParsedClass parse(FileObject fileObject)
 		{
-			File file = fileObject.getFile();
-			final String path = file.getPath();
+			long start = System.nanoTime();
 			try
 			{
 				byte[] fileContent = fileObject.getOrLoadContent();
 				// the file is assumed to exist!
-				int newClassQName = myJavaDependencyCache.reparseClassFile(file, fileContent);
+				return new ParsedClass(myJavaDependencyCache.parseClassFile(fileObject.getFile(), fileContent), null);
+			}
+			catch(ClsFormatException | IOException | CacheCorruptedException e)
+			{
+				return new ParsedClass(null, e);
+			}
+			finally
+			{
+				myStatistics.addParsingTime(System.nanoTime() - start);
+			}
+		}
+
+		private void importNext() throws CacheCorruptedException, InterruptedException
+		{
+			Pair<FileObject, Future<ParsedClass>> pair = myParsing.poll();
+			ParsedClass parsed;
+			try
+			{
+				parsed = pair.getSecond().get();
+			}
+			catch(java.util.concurrent.ExecutionException e)
+			{
+				throw new CacheCorruptedException(e.getCause());
+			}
+			processPath(pair.getFirst(), parsed);
+		}
+
+		private void processPath(FileObject fileObject, ParsedClass parsed) throws CacheCorruptedException
+		{
+			File file = fileObject.getFile();
+			final String path = file.getPath();
+			try
+			{
+				long start = System.nanoTime();
+				int newClassQName = myJavaDependencyCache.importParsedClass(parsed.getClassInfo());
 				final Cache newClassesCache = myJavaDependencyCache.getNewClassesCache();
 				final String sourceFileName = newClassesCache.getSourceFileName(newClassQName);
 				final String qName = myJavaDependencyCache.resolve(newClassQName);
@@ -1141,6 +1211,7 @@ public class BackendCompilerWrapper
 
 				fileObject.setClassId(newClassQName);
 				myParsingInfo.put(file, fileObject);
+				myStatistics.addImportTime(System.nanoTime() - start);
 			}
 			catch(ClsFormatException e)
 			{
@@ -1162,11 +1233,47 @@ public class BackendCompilerWrapper
 		}
 	}
 
+	private static final class ParsedClass
+	{
+		@Nullable
+		private final ClassInfo myClassInfo;
+		@Nullable
+		private final Exception myError;
+
+		private ParsedClass(@Nullable ClassInfo classInfo, @Nullable Exception error)
+		{
+			myClassInfo = classInfo;
+			myError = error;
+		}
+
+		@Nonnull
+		private ClassInfo getClassInfo() throws ClsFormatException, IOException, CacheCorruptedException
+		{
+			if(myError instanceof ClsFormatException)
+			{
+				throw (ClsFormatException) myError;
+			}
+			if(myError instanceof IOException)
+			{
+				throw (IOException) myError;
+			}
+			if(myError instanceof CacheCorruptedException)
+			{
+				throw (CacheCorruptedException) myError;
+			}
+			assert myClassInfo != null;
+			return myClassInfo;
+		}
+	}
+
 	private static final class CompileStatistics
 	{
 		private static final Key<CompileStatistics> KEY = Key.create("_Compile_Statistics_");
 		private int myClassesCount;
 		private int myFilesCount;
+		// time spent reading and parsing class files, summed over all the parsing workers
+		private final AtomicLong myParsingTime = new AtomicLong();
+		private long myImportTime;
 
 		public int getClassesCount()
 		{
@@ -1187,5 +1294,24 @@ public class BackendCompilerWrapper
 		{
 			return ++myFilesCount;
 		}
+
+		public void addParsingTime(long nanos)
+		{
+			myParsingTime.addAndGet(nanos);
+		}
+
+		public void addImportTime(long nanos)
+		{
+			myImportTime += nanos;
+		}
+
+		@Override
+		public String toString()
+		{
+			long parsingMs = TimeUnit.NANOSECONDS.toMillis(myParsingTime.get());
+			long importMs = TimeUnit.NANOSECONDS.toMillis(myImportTime);
+			return "classes: " + myClassesCount + ", parsing: " + parsingMs + " ms, import: " + importMs + " ms" +
+					(importMs > 0 ? ", " + myClassesCount * 1000L / importMs + " classes/s imported" : "");
+		}
 	}
 }
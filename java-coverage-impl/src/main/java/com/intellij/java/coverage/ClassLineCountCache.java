@@ -0,0 +1,91 @@
+package com.intellij.java.coverage;
+
+import consulo.annotation.component.ComponentScope;
+import consulo.annotation.component.ServiceAPI;
+import consulo.annotation.component.ServiceImpl;
+import consulo.ide.ServiceManager;
+import jakarta.annotation.Nonnull;
+import jakarta.inject.Singleton;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Line and method counts of the classes not loaded during a coverage run, keyed by the hash of the class file bytes,
+ * so switching between coverage suites of the same build doesn't parse the same class files again.
+ */
+@Singleton
+@ServiceAPI(ComponentScope.APPLICATION)
+@ServiceImpl
+public class ClassLineCountCache {
+  private static final int MAX_SIZE = 100000;
+
+  private final Map<Key, SourceLineCounterUtil.LineCounts> myCounts = new LinkedHashMap<Key, SourceLineCounterUtil.LineCounts>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, SourceLineCounterUtil.LineCounts> eldest) {
+      return size() > MAX_SIZE;
+    }
+  };
+
+  @Nonnull
+  public static ClassLineCountCache getInstance() {
+    return ServiceManager.getService(ClassLineCountCache.class);
+  }
+
+  @Nonnull
+  public SourceLineCounterUtil.LineCounts getLineCounts(@Nonnull byte[] content, boolean excludeLines) {
+    Key key = new Key(digest(content), excludeLines);
+    synchronized (myCounts) {
+      SourceLineCounterUtil.LineCounts counts = myCounts.get(key);
+      if (counts != null) {
+        return counts;
+      }
+    }
+    SourceLineCounterUtil.LineCounts counts = SourceLineCounterUtil.countLines(content, excludeLines);
+    synchronized (myCounts) {
+      myCounts.put(key, counts);
+    }
+    return counts;
+  }
+
+  public void clear() {
+    synchronized (myCounts) {
+      myCounts.clear();
+    }
+  }
+
+  private static byte[] digest(byte[] content) {
+    try {
+      return MessageDigest.getInstance("SHA-1").digest(content);
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static final class Key {
+    private final byte[] myHash;
+    private final boolean myExcludeLines;
+
+    private Key(byte[] hash, boolean excludeLines) {
+      myHash = hash;
+      myExcludeLines = excludeLines;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      Key key = (Key)o;
+      return myExcludeLines == key.myExcludeLines && Arrays.equals(myHash, key.myHash);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Arrays.hashCode(myHash) + (myExcludeLines ? 1 : 0);
+    }
+  }
+}
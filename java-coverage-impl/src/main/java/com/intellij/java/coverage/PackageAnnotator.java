@@ -7,6 +7,8 @@ import com.intellij.rt.coverage.data.ClassData;
 import com.intellij.rt.coverage.data.LineCoverage;
 import com.intellij.rt.coverage.data.LineData;
 import com.intellij.rt.coverage.data.ProjectData;
+import consulo.application.progress.ProgressManager;
+import consulo.application.util.concurrent.JobLauncher;
 import consulo.application.util.function.Computable;
 import consulo.compiler.ModuleCompilerPathsManager;
 import consulo.execution.coverage.CoverageDataManager;
@@ -36,6 +38,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author ven
@@ -46,6 +49,8 @@ public class PackageAnnotator {
   private final Project myProject;
   private final PsiManager myManager;
   private final CoverageDataManager myCoverageManager;
+  // class files not loaded during the coverage run -> their line counts, computed in parallel before the output is walked
+  private final Map<File, SourceLineCounterUtil.LineCounts> myLineCounts = new ConcurrentHashMap<File, SourceLineCounterUtil.LineCounts>();
 
   public PackageAnnotator(final PsiJavaPackage aPackage) {
     myPackage = aPackage;
@@ -145,6 +150,7 @@ public class PackageAnnotator {
       if (output != null) {
         File outputRoot = findRelativeFile(rootPackageVMName, output);
         if (outputRoot.exists()) {
+          countUncoveredClasses(outputRoot, rootPackageVMName, data, suite.isTracingEnabled());
           collectCoverageInformation(outputRoot, packageCoverageMap, flattenPackageCoverageMap, data, rootPackageVMName, annotator,
               module, suite.isTrackTestFolders(), false);
         }
@@ -162,6 +168,7 @@ public class PackageAnnotator {
         if (testPackageRoot != null) {
           final File outputRoot = findRelativeFile(rootPackageVMName, testPackageRoot);
           if (outputRoot.exists()) {
+            countUncoveredClasses(outputRoot, rootPackageVMName, data, suite.isTracingEnabled());
             collectCoverageInformation(outputRoot, packageCoverageMap, flattenPackageCoverageMap, data, rootPackageVMName, annotator,
                 module, suite.isTrackTestFolders(), true);
           }
@@ -182,6 +189,48 @@ public class PackageAnnotator {
     }
   }
 
+  /**
+   * Parses the class files which were not loaded during the coverage run in parallel, so the walk over the output directories
+   * finds their line counts ready. Only class bytes are read here, no PSI is accessed and no read action is taken.
+   */
+  private void countUncoveredClasses(final File outputRoot, final String packageVMName, final ProjectData projectInfo, final boolean excludeLines) {
+    final List<File> classFiles = new ArrayList<File>();
+    collectUncoveredClassFiles(outputRoot, packageVMName, projectInfo, classFiles);
+    if (classFiles.isEmpty()) {
+      return;
+    }
+    final ClassLineCountCache cache = ClassLineCountCache.getInstance();
+    JobLauncher.getInstance().invokeConcurrentlyUnderProgress(classFiles, ProgressManager.getInstance().getProgressIndicator(), classFile -> {
+      try {
+        myLineCounts.put(classFile, cache.getLineCounts(Files.readAllBytes(classFile.toPath()), excludeLines));
+      } catch (IOException ignored) {
+      }
+      return true;
+    });
+  }
+
+  private static void collectUncoveredClassFiles(final File packageOutputRoot, final String packageVMName, final ProjectData projectInfo,
+                                                 final List<File> classFiles) {
+    final File[] children = packageOutputRoot.listFiles();
+    if (children == null) {
+      return;
+    }
+    for (File child : children) {
+      if (child.isDirectory()) {
+        final String childName = child.getName();
+        final String childPackageVMName = packageVMName.length() > 0 ? packageVMName + "/" + childName : childName;
+        collectUncoveredClassFiles(child, childPackageVMName, projectInfo, classFiles);
+      } else if (isClassFile(child)) {
+        final String childName = getClassName(child);
+        final String classFqVMName = packageVMName.length() > 0 ? packageVMName + "/" + childName : childName;
+        final ClassData classData = projectInfo.getClassData(classFqVMName.replace("/", "."));
+        if (classData == null || classData.getLines() == null) {
+          classFiles.add(child);
+        }
+      }
+    }
+  }
+
   private static File findRelativeFile(String rootPackageVMName, VirtualFile output) {
     File outputRoot = VirtualFileUtil.virtualToIoFile(output);
     outputRoot = rootPackageVMName.length() > 0 ? new File(outputRoot, FileUtil.toSystemDependentName(rootPackageVMName)) : outputRoot;
@@ -255,6 +304,8 @@ public class PackageAnnotator {
       return null;
     }
 
+    final Map<String, VirtualFile> sourceFiles = findSourceFiles(children, packageVMName, module, trackTestFolders);
+
     Map<String, ClassCoverageInfo> toplevelClassCoverage = new HashMap<String, ClassCoverageInfo>();
     for (File child : children) {
       if (child.isDirectory()) {
@@ -279,24 +330,10 @@ public class PackageAnnotator {
           final String childName = getClassName(child);
           final String classFqVMName = packageVMName.length() > 0 ? packageVMName + "/" + childName : childName;
           final String toplevelClassSrcFQName = getSourceToplevelFQName(classFqVMName);
-          final VirtualFile[] containingFile = new VirtualFile[1];
-          final Boolean isInSource = myCoverageManager.doInReadActionIfProjectOpen(new Computable<Boolean>() {
-            public Boolean compute() {
-              final PsiClass aClass = JavaPsiFacade.getInstance(myManager.getProject()).findClass(toplevelClassSrcFQName,
-                  GlobalSearchScope.moduleScope(module));
-              if (aClass == null || !aClass.isValid()) {
-                return Boolean.FALSE;
-              }
-              containingFile[0] = aClass.getContainingFile().getVirtualFile();
-              assert containingFile[0] != null : aClass;
-              final ModuleFileIndex fileIndex = ModuleRootManager.getInstance(module).getFileIndex();
-              return fileIndex.isInSourceContent(containingFile[0]) && (trackTestFolders ||
-                  !fileIndex.isInTestSourceContent(containingFile[0]));
-            }
-          });
-          if (isInSource != null && isInSource.booleanValue()) {
+          final VirtualFile containingFile = sourceFiles.get(toplevelClassSrcFQName);
+          if (containingFile != null) {
             for (DirCoverageInfo dirCoverageInfo : dirs) {
-              if (dirCoverageInfo.sourceRoot != null && VirtualFileUtil.isAncestor(dirCoverageInfo.sourceRoot, containingFile[0], false)) {
+              if (dirCoverageInfo.sourceRoot != null && VirtualFileUtil.isAncestor(dirCoverageInfo.sourceRoot, containingFile, false)) {
                 collectClassCoverageInformation(child, dirCoverageInfo, projectInfo, toplevelClassCoverage,
                     classFqVMName.replace("/", "."), toplevelClassSrcFQName);
                 break;
@@ -345,6 +382,47 @@ public class PackageAnnotator {
     return dirs.toArray(new DirCoverageInfo[dirs.size()]);
   }
 
+  /**
+   * Resolves the top level classes of the class files in one read action per directory
+   *
+   * @return source files of the classes which are in the source content of the module, by top level class name
+   */
+  private Map<String, VirtualFile> findSourceFiles(final File[] children, final String packageVMName, final Module module,
+                                                   final boolean trackTestFolders) {
+    final Set<String> toplevelClassNames = new LinkedHashSet<String>();
+    for (File child : children) {
+      if (!child.isDirectory() && isClassFile(child)) {
+        final String childName = getClassName(child);
+        toplevelClassNames.add(getSourceToplevelFQName(packageVMName.length() > 0 ? packageVMName + "/" + childName : childName));
+      }
+    }
+    if (toplevelClassNames.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    final Map<String, VirtualFile> sourceFiles = myCoverageManager.doInReadActionIfProjectOpen(new Computable<Map<String, VirtualFile>>() {
+      public Map<String, VirtualFile> compute() {
+        final Map<String, VirtualFile> result = new HashMap<String, VirtualFile>();
+        final JavaPsiFacade facade = JavaPsiFacade.getInstance(myManager.getProject());
+        final GlobalSearchScope scope = GlobalSearchScope.moduleScope(module);
+        final ModuleFileIndex fileIndex = ModuleRootManager.getInstance(module).getFileIndex();
+        for (String toplevelClassSrcFQName : toplevelClassNames) {
+          final PsiClass aClass = facade.findClass(toplevelClassSrcFQName, scope);
+          if (aClass == null || !aClass.isValid()) {
+            continue;
+          }
+          final VirtualFile containingFile = aClass.getContainingFile().getVirtualFile();
+          assert containingFile != null : aClass;
+          if (fileIndex.isInSourceContent(containingFile) && (trackTestFolders || !fileIndex.isInTestSourceContent(containingFile))) {
+            result.put(toplevelClassSrcFQName, containingFile);
+          }
+        }
+        return result;
+      }
+    });
+    return sourceFiles != null ? sourceFiles : Collections.<String, VirtualFile>emptyMap();
+  }
+
   private static boolean isClassFile(File classFile) {
     return classFile.getName().endsWith(".class");
   }
@@ -452,19 +530,18 @@ public class PackageAnnotator {
      */
   private boolean collectNonCoveredClassInfo(final File classFile, final ClassCoverageInfo classCoverageInfo,
                                              final PackageCoverageInfo packageCoverageInfo) {
-    final byte[] content = myCoverageManager.doInReadActionIfProjectOpen(new Computable<byte[]>() {
-      public byte[] compute() {
-        try {
-          return Files.readAllBytes(classFile.toPath());
-        } catch (IOException e) {
-          return null;
-        }
+    SourceLineCounterUtil.LineCounts counts = myLineCounts.get(classFile);
+    if (counts == null) {
+      final CoverageSuitesBundle coverageSuite = CoverageDataManager.getInstance(myProject).getCurrentSuitesBundle();
+      if (coverageSuite == null) {
+        return false;
+      }
+      try {
+        counts = ClassLineCountCache.getInstance().getLineCounts(Files.readAllBytes(classFile.toPath()), coverageSuite.isTracingEnabled());
+      } catch (IOException e) {
+        return false;
       }
-    });
-    final CoverageSuitesBundle coverageSuite = CoverageDataManager.getInstance(myProject).getCurrentSuitesBundle();
-    if (coverageSuite == null) {
-      return false;
     }
-    return SourceLineCounterUtil.collectNonCoveredClassInfo(classCoverageInfo, packageCoverageInfo, content, coverageSuite.isTracingEnabled());
+    return SourceLineCounterUtil.collectNonCoveredClassInfo(classCoverageInfo, packageCoverageInfo, counts);
   }
 }
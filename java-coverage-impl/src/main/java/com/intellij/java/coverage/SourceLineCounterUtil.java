@@ -20,21 +20,36 @@ public class SourceLineCounterUtil
 		{
 			return false;
 		}
-		ClassReader reader = new ClassReader(content, 0, content.length);
+		return collectNonCoveredClassInfo(classCoverageInfo, packageCoverageInfo, countLines(content, excludeLines));
+	}
 
-		SourceLineCounter counter = new SourceLineCounter(null, excludeLines, null);
-		reader.accept(counter, 0);
-		classCoverageInfo.totalLineCount += counter.getNSourceLines();
-		classCoverageInfo.totalMethodCount += counter.getNMethodsWithCode();
-		packageCoverageInfo.totalLineCount += counter.getNSourceLines();
-		packageCoverageInfo.totalMethodCount += counter.getNMethodsWithCode();
-		if(!counter.isInterface())
+	public static boolean collectNonCoveredClassInfo(final PackageAnnotator.ClassCoverageInfo classCoverageInfo,
+													 final PackageAnnotator.PackageCoverageInfo packageCoverageInfo,
+													 final LineCounts counts)
+	{
+		classCoverageInfo.totalLineCount += counts.sourceLineCount;
+		classCoverageInfo.totalMethodCount += counts.methodWithCodeCount;
+		packageCoverageInfo.totalLineCount += counts.sourceLineCount;
+		packageCoverageInfo.totalMethodCount += counts.methodWithCodeCount;
+		if(!counts.isInterface)
 		{
 			packageCoverageInfo.totalClassCount++;
 		}
 		return false;
 	}
 
+	/**
+	 * Counts source lines and methods of the class bytes, doesn't need read action
+	 */
+	public static LineCounts countLines(byte[] content, final boolean excludeLines)
+	{
+		ClassReader reader = new ClassReader(content, 0, content.length);
+
+		SourceLineCounter counter = new SourceLineCounter(null, excludeLines, null);
+		reader.accept(counter, 0);
+		return new LineCounts(counter.getNSourceLines(), counter.getNMethodsWithCode(), counter.isInterface());
+	}
+
 	public static void collectSrcLinesForUntouchedFiles(final List<Integer> uncoveredLines,
 														byte[] content, final boolean excludeLines)
 	{
@@ -47,4 +62,21 @@ public class SourceLineCounterUtil
 			uncoveredLines.add(line);
 		});
 	}
+
+	/**
+	 * Line and method counts of a class which was not loaded during the coverage run
+	 */
+	public static final class LineCounts
+	{
+		public final int sourceLineCount;
+		public final int methodWithCodeCount;
+		public final boolean isInterface;
+
+		public LineCounts(int sourceLineCount, int methodWithCodeCount, boolean isInterface)
+		{
+			this.sourceLineCount = sourceLineCount;
+			this.methodWithCodeCount = methodWithCodeCount;
+			this.isInterface = isInterface;
+		}
+	}
 }
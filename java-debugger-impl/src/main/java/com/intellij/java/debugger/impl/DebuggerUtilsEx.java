@@ -737,10 +737,12 @@ public abstract class DebuggerUtilsEx extends DebuggerUtils {
     return null;
   }
 
+  // leave a small gap over XValueNode.MAX_VALUE_LENGTH to detect oversize
+  public static final int MAX_LABEL_LENGTH = XValueNode.MAX_VALUE_LENGTH + 5;
+
   public static String truncateString(final String str) {
-    // leave a small gap over XValueNode.MAX_VALUE_LENGTH to detect oversize
-    if (str.length() > XValueNode.MAX_VALUE_LENGTH + 5) {
-      return str.substring(0, XValueNode.MAX_VALUE_LENGTH + 5);
+    if (str.length() > MAX_LABEL_LENGTH) {
+      return str.substring(0, MAX_LABEL_LENGTH);
     }
     return str;
   }
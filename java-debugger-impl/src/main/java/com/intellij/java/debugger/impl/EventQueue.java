@@ -19,10 +19,12 @@ import consulo.logging.Logger;
 import jakarta.annotation.Nonnull;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 
 
 public class EventQueue<E> {
@@ -144,6 +146,31 @@ public class EventQueue<E> {
     return allEvents;
   }
 
+  /**
+   * Removes the queued events matching the condition
+   *
+   * @return the removed events
+   */
+  @Nonnull
+  public List<E> removeIf(@Nonnull Predicate<? super E> condition) {
+    final List<E> removed = new ArrayList<E>();
+    myLock.lock();
+    try {
+      for (int i = 0; i < myEvents.length; i++) {
+        for (Iterator<E> iterator = getEventsList(i).iterator(); iterator.hasNext(); ) {
+          final E event = iterator.next();
+          if (condition.test(event)) {
+            iterator.remove();
+            removed.add(event);
+          }
+        }
+      }
+    } finally {
+      myLock.unlock();
+    }
+    return removed;
+  }
+
   public void reopen() {
     myIsClosed = false;
   }
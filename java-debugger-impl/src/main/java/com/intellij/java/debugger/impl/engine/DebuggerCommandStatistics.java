@@ -0,0 +1,133 @@
+/*
+ * Copyright 2000-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.debugger.impl.engine;
+
+import com.intellij.java.debugger.impl.engine.events.DebuggerCommandImpl;
+
+import jakarta.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per command type statistics of the manager thread queue: how many commands were queued before the command,
+ * how long it waited in the queue and how long it ran, so commands delaying stepping can be found.
+ */
+public class DebuggerCommandStatistics
+{
+	private final Map<String, CommandStatistics> myStatistics = new ConcurrentHashMap<>();
+
+	void commandScheduled(@Nonnull DebuggerCommandImpl command, int queueDepth)
+	{
+		getStatistics(command).scheduled(queueDepth);
+	}
+
+	void commandProcessed(@Nonnull DebuggerCommandImpl command, long waitTime, long runTime)
+	{
+		getStatistics(command).processed(waitTime, runTime);
+	}
+
+	void commandCancelled(@Nonnull DebuggerCommandImpl command)
+	{
+		getStatistics(command).cancelled();
+	}
+
+	@Nonnull
+	private CommandStatistics getStatistics(@Nonnull DebuggerCommandImpl command)
+	{
+		return myStatistics.computeIfAbsent(command.getClass().getName(), name -> new CommandStatistics());
+	}
+
+	public void reset()
+	{
+		myStatistics.clear();
+	}
+
+	/**
+	 * @return one line per command type, the types with the longest total latency first
+	 */
+	@Override
+	public String toString()
+	{
+		List<Map.Entry<String, CommandStatistics>> entries = new ArrayList<>(myStatistics.entrySet());
+		entries.sort(Comparator.comparingLong((Map.Entry<String, CommandStatistics> entry) -> entry.getValue().getTotalLatency()).reversed());
+		StringBuilder builder = new StringBuilder();
+		for(Map.Entry<String, CommandStatistics> entry : entries)
+		{
+			builder.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+		}
+		return builder.toString();
+	}
+
+	private static final class CommandStatistics
+	{
+		private int myScheduled;
+		private int myProcessed;
+		private int myCancelled;
+		private int myMaxQueueDepth;
+		private long myTotalWaitTime;
+		private long myMaxWaitTime;
+		private long myTotalRunTime;
+		private long myMaxRunTime;
+
+		synchronized void scheduled(int queueDepth)
+		{
+			myScheduled++;
+			myMaxQueueDepth = Math.max(myMaxQueueDepth, queueDepth);
+		}
+
+		synchronized void processed(long waitTime, long runTime)
+		{
+			myProcessed++;
+			myTotalWaitTime += waitTime;
+			myMaxWaitTime = Math.max(myMaxWaitTime, waitTime);
+			myTotalRunTime += runTime;
+			myMaxRunTime = Math.max(myMaxRunTime, runTime);
+		}
+
+		synchronized void cancelled()
+		{
+			myCancelled++;
+		}
+
+		synchronized long getTotalLatency()
+		{
+			return myTotalWaitTime + myTotalRunTime;
+		}
+
+		@Override
+		public synchronized String toString()
+		{
+			return "scheduled " + myScheduled + ", processed " + myProcessed + ", cancelled " + myCancelled +
+					", max queue depth " + myMaxQueueDepth +
+					", wait avg/max " + average(myTotalWaitTime) + "/" + toMillis(myMaxWaitTime) + " ms" +
+					", run avg/max " + average(myTotalRunTime) + "/" + toMillis(myMaxRunTime) + " ms";
+		}
+
+		private long average(long total)
+		{
+			return myProcessed == 0 ? 0 : toMillis(total / myProcessed);
+		}
+
+		private static long toMillis(long nanos)
+		{
+			return TimeUnit.NANOSECONDS.toMillis(nanos);
+		}
+	}
+}
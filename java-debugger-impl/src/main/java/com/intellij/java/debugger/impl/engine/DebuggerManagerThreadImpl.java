@@ -22,6 +22,7 @@ import com.intellij.java.debugger.impl.InvokeAndWaitThread;
 import com.intellij.java.debugger.impl.engine.events.DebuggerCommandImpl;
 import com.intellij.java.debugger.impl.engine.events.SuspendContextCommandImpl;
 import consulo.application.ApplicationManager;
+import consulo.application.ReadAction;
 import consulo.application.progress.ProgressIndicatorListener;
 import consulo.application.progress.ProgressManager;
 import consulo.application.util.concurrent.AppExecutorUtil;
@@ -36,6 +37,7 @@ import org.jetbrains.annotations.TestOnly;
 
 import jakarta.annotation.Nonnull;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author lex
@@ -47,6 +49,10 @@ public class DebuggerManagerThreadImpl extends InvokeAndWaitThread<DebuggerComma
 
 	private volatile boolean myDisposed;
 
+	private final DebuggerCommandStatistics myStatistics = new DebuggerCommandStatistics();
+	// number of the commands waiting in the queue
+	private final AtomicInteger myQueueDepth = new AtomicInteger();
+
 	DebuggerManagerThreadImpl(@Nonnull Disposable parent, Project project)
 	{
 		super(project);
@@ -97,9 +103,11 @@ public class DebuggerManagerThreadImpl extends InvokeAndWaitThread<DebuggerComma
 	@Override
 	public boolean pushBack(DebuggerCommandImpl managerCommand)
 	{
+		commandQueued(managerCommand);
 		final boolean pushed = super.pushBack(managerCommand);
 		if(!pushed)
 		{
+			commandDequeued(managerCommand);
 			managerCommand.notifyCancelled();
 		}
 		return pushed;
@@ -108,14 +116,82 @@ public class DebuggerManagerThreadImpl extends InvokeAndWaitThread<DebuggerComma
 	@Override
 	public boolean schedule(DebuggerCommandImpl managerCommand)
 	{
+		commandQueued(managerCommand);
 		final boolean scheduled = super.schedule(managerCommand);
 		if(!scheduled)
 		{
+			commandDequeued(managerCommand);
 			managerCommand.notifyCancelled();
 		}
 		return scheduled;
 	}
 
+	private void commandQueued(DebuggerCommandImpl managerCommand)
+	{
+		managerCommand.setScheduledTime(System.nanoTime());
+		myStatistics.commandScheduled(managerCommand, myQueueDepth.incrementAndGet());
+	}
+
+	/**
+	 * @return nanoseconds the command spent in the queue, 0 if it was invoked directly
+	 */
+	private long commandDequeued(DebuggerCommandImpl managerCommand)
+	{
+		final long scheduledTime = managerCommand.getScheduledTime();
+		if(scheduledTime == 0)
+		{
+			return 0;
+		}
+		managerCommand.setScheduledTime(0);
+		myQueueDepth.decrementAndGet();
+		return System.nanoTime() - scheduledTime;
+	}
+
+	/**
+	 * Cancels the queued commands of the suspend contexts which are already resumed, e.g. renderers of the frame
+	 * the user has just stepped from, right away instead of letting them wait for their turn
+	 */
+	void cancelStaleCommands()
+	{
+		assertIsManagerThread();
+		for(DebuggerCommandImpl command : myEvents.removeIf(DebuggerManagerThreadImpl::isStale))
+		{
+			commandDequeued(command);
+			myStatistics.commandCancelled(command);
+			command.notifyCancelled();
+		}
+	}
+
+	private static boolean isStale(DebuggerCommandImpl command)
+	{
+		return command instanceof SuspendContextCommandImpl && ((SuspendContextCommandImpl) command).isStale();
+	}
+
+	/**
+	 * Runs read-only PSI work, like computing source positions for navigation, in a read action on a pooled thread,
+	 * so it doesn't hold the manager thread and delay stepping. The action must not access JDI: all the JDI work
+	 * stays serialized on the manager thread.
+	 */
+	public void invokeReadAction(@Nonnull Runnable action)
+	{
+		ApplicationManager.getApplication().executeOnPooledThread(() ->
+		{
+			if(!myDisposed)
+			{
+				ReadAction.run(action::run);
+			}
+		});
+	}
+
+	/**
+	 * @return queue depth and latency of the commands processed by this thread, per command type
+	 */
+	@Nonnull
+	public DebuggerCommandStatistics getStatistics()
+	{
+		return myStatistics;
+	}
+
 	/**
 	 * waits COMMAND_TIMEOUT milliseconds
 	 * if worker thread is still processing the same command
@@ -162,15 +238,25 @@ public class DebuggerManagerThreadImpl extends InvokeAndWaitThread<DebuggerComma
 	public void processEvent(@Nonnull DebuggerCommandImpl managerCommand)
 	{
 		assertIsManagerThread();
+		final long waitTime = commandDequeued(managerCommand);
+		final long start = System.nanoTime();
 		try
 		{
 			if(myEvents.isClosed())
 			{
+				myStatistics.commandCancelled(managerCommand);
 				managerCommand.notifyCancelled();
 			}
 			else
 			{
-				managerCommand.run();
+				try
+				{
+					managerCommand.run();
+				}
+				finally
+				{
+					myStatistics.commandProcessed(managerCommand, waitTime, System.nanoTime() - start);
+				}
 			}
 		}
 		catch(VMDisconnectedException e)
@@ -293,6 +379,7 @@ public class DebuggerManagerThreadImpl extends InvokeAndWaitThread<DebuggerComma
 	{
 		if(myEvents.isClosed())
 		{
+			myQueueDepth.set(0);
 			myEvents.reopen();
 			startNewWorkerThread();
 		}
@@ -579,8 +579,8 @@ public class JavaValue extends XNamedValue implements NodeDescriptorProvider, XV
                   @Override
                   protected void doAction(@Nullable final SourcePosition sourcePosition) {
                     if (sourcePosition != null) {
-                      ApplicationManager.getApplication()
-                                        .runReadAction(() -> navigatable.setSourcePosition(DebuggerUtilsEx.toXSourcePosition(sourcePosition)));
+                      debugProcess.getManagerThread()
+                                  .invokeReadAction(() -> navigatable.setSourcePosition(DebuggerUtilsEx.toXSourcePosition(sourcePosition)));
                     }
                   }
                 });
@@ -55,6 +55,8 @@ import consulo.virtualFileSystem.VirtualFileManager;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -67,6 +69,21 @@ public class PositionManagerImpl implements PositionManager, MultiRequestPositio
 
 	private final DebugProcessImpl myDebugProcess;
 
+	// Breakpoints are installed on every class-prepare of their classes, and every prepared local or anonymous class
+	// is matched against the lines of all the breakpoints of its top level class, so both JDI line tables and
+	// PSI of the breakpoint lines are queried again and again. Locations are cached until HotSwap, line classes until PSI changes.
+
+	// class -> line -> locations of the line
+	private final Map<ReferenceType, Map<Integer, List<Location>>> myLocationsOfLine = new ConcurrentHashMap<>();
+	// class -> first and last source line of its code
+	private final Map<ReferenceType, int[]> myLineRanges = new ConcurrentHashMap<>();
+	private volatile int myRedefinitionCount;
+	// file -> line -> classes having code on the line
+	private final Map<PsiFile, Map<Integer, Set<PsiClass>>> myLineClasses = new ConcurrentHashMap<>();
+	private volatile long myPsiModificationCount = -1;
+	private final AtomicLong myHits = new AtomicLong();
+	private final AtomicLong myMisses = new AtomicLong();
+
 	public PositionManagerImpl(DebugProcessImpl debugProcess)
 	{
 		myDebugProcess = debugProcess;
@@ -81,15 +98,72 @@ public class PositionManagerImpl implements PositionManager, MultiRequestPositio
 	@Nonnull
 	public List<Location> locationsOfLine(@Nonnull ReferenceType type, @Nonnull SourcePosition position) throws NoDataException
 	{
+		dropOutdatedLocations();
+		final int line = position.getLine() + 1;
+		Map<Integer, List<Location>> lineLocations = myLocationsOfLine.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
+		List<Location> locations = lineLocations.get(line);
+		if(locations != null)
+		{
+			myHits.incrementAndGet();
+			return locations;
+		}
+		myMisses.incrementAndGet();
 		try
 		{
-			final int line = position.getLine() + 1;
-			return type.locationsOfLine(DebugProcess.JAVA_STRATUM, null, line);
+			locations = Collections.unmodifiableList(type.locationsOfLine(DebugProcess.JAVA_STRATUM, null, line));
 		}
 		catch(AbsentInformationException ignored)
 		{
+			locations = Collections.emptyList();
+		}
+		lineLocations.put(line, locations);
+		return locations;
+	}
+
+	private void dropOutdatedLocations()
+	{
+		int redefinitionCount = myDebugProcess.getVirtualMachineProxy().getRedefinitionCount();
+		if(myRedefinitionCount != redefinitionCount)
+		{
+			myLocationsOfLine.clear();
+			myLineRanges.clear();
+			myRedefinitionCount = redefinitionCount;
 		}
-		return Collections.emptyList();
+	}
+
+	/**
+	 * @return classes having code on the line, cached until the next PSI modification
+	 */
+	private Set<PsiClass> getCachedLineClasses(@Nonnull PsiFile file, int lineNumber)
+	{
+		ApplicationManager.getApplication().assertReadAccessAllowed();
+		long modificationCount = PsiModificationTracker.getInstance(file.getProject()).getModificationCount();
+		if(myPsiModificationCount != modificationCount)
+		{
+			myLineClasses.clear();
+			myPsiModificationCount = modificationCount;
+		}
+		Map<Integer, Set<PsiClass>> fileLineClasses = myLineClasses.computeIfAbsent(file, f -> new ConcurrentHashMap<>());
+		Set<PsiClass> classes = fileLineClasses.get(lineNumber);
+		if(classes != null)
+		{
+			myHits.incrementAndGet();
+			return classes;
+		}
+		myMisses.incrementAndGet();
+		classes = Collections.unmodifiableSet(getLineClasses(file, lineNumber));
+		fileLineClasses.put(lineNumber, classes);
+		return classes;
+	}
+
+	/**
+	 * @return hit and miss counts of the cached class locations and line classes
+	 */
+	@Nonnull
+	public String getCacheStatistics()
+	{
+		return "position cache hits: " + myHits.get() + ", misses: " + myMisses.get() +
+				", classes: " + myLocationsOfLine.size() + ", files: " + myLineClasses.size();
 	}
 
 	@Override
@@ -105,7 +179,7 @@ public class PositionManagerImpl implements PositionManager, MultiRequestPositio
 		return ReadAction.compute(() ->
 		{
 			List<ClassPrepareRequest> res = new ArrayList<>();
-			for(PsiClass psiClass : getLineClasses(position.getFile(), position.getLine()))
+			for(PsiClass psiClass : getCachedLineClasses(position.getFile(), position.getLine()))
 			{
 				ClassPrepareRequestor prepareRequestor = requestor;
 				String classPattern = JVMNameUtil.getNonAnonymousClassName(psiClass);
@@ -548,7 +622,7 @@ public class PositionManagerImpl implements PositionManager, MultiRequestPositio
 		return ReadAction.compute(() ->
 		{
 			List<ReferenceType> list = new ArrayList<>();
-			for(PsiClass lineClass : getLineClasses(position.getFile(), position.getLine()))
+			for(PsiClass lineClass : getCachedLineClasses(position.getFile(), position.getLine()))
 			{
 				list.addAll(getClassReferences(lineClass, position));
 			}
@@ -682,37 +756,9 @@ public class PositionManagerImpl implements PositionManager, MultiRequestPositio
 				return null;
 			}
 
-			int rangeBegin = Integer.MAX_VALUE;
-			int rangeEnd = Integer.MIN_VALUE;
-			for(Location location : DebuggerUtilsEx.allLineLocations(fromClass))
-			{
-				final int lnumber = DebuggerUtilsEx.getLineNumber(location, false);
-				if(lnumber <= 1)
-				{
-					// should be a native method, skipping
-					// sometimes compiler generates location where line number is exactly 1 (e.g. GWT)
-					// such locations are hardly correspond to real lines in code, so skipping them too
-					continue;
-				}
-				final Method method = DebuggerUtilsEx.getMethod(location);
-				if(method == null || DebuggerUtils.isSynthetic(method) || method.isBridge())
-				{
-					// do not take into account synthetic stuff
-					continue;
-				}
-				int locationLine = lnumber - 1;
-				PsiFile psiFile = position.getFile().getOriginalFile();
-				if(psiFile instanceof PsiCompiledFile)
-				{
-					locationLine = DebuggerUtilsEx.bytecodeToSourceLine(psiFile, locationLine);
-					if(locationLine < 0)
-					{
-						continue;
-					}
-				}
-				rangeBegin = Math.min(rangeBegin, locationLine);
-				rangeEnd = Math.max(rangeEnd, locationLine);
-			}
+			int[] range = getLineRange(fromClass, position.getFile().getOriginalFile());
+			int rangeBegin = range[0];
+			int rangeEnd = range[1];
 
 			final int positionLine = position.getLine();
 			if(positionLine >= rangeBegin && positionLine <= rangeEnd)
@@ -728,7 +774,7 @@ public class PositionManagerImpl implements PositionManager, MultiRequestPositio
 				{
 					return null;
 				}
-				Set<PsiClass> lineClasses = getLineClasses(position.getFile(), rangeEnd);
+				Set<PsiClass> lineClasses = getCachedLineClasses(position.getFile(), rangeEnd);
 				if(lineClasses.size() > 1)
 				{
 					// if there's more than one class on the line - try to match by name
@@ -750,6 +796,63 @@ public class PositionManagerImpl implements PositionManager, MultiRequestPositio
 		return null;
 	}
 
+	/**
+	 * @return first and last source lines of the class code, not cached for compiled files as their lines depend on the decompiled text
+	 */
+	private int[] getLineRange(@Nonnull ReferenceType fromClass, @Nonnull PsiFile psiFile)
+	{
+		boolean compiled = psiFile instanceof PsiCompiledFile;
+		if(!compiled)
+		{
+			dropOutdatedLocations();
+			int[] range = myLineRanges.get(fromClass);
+			if(range != null)
+			{
+				myHits.incrementAndGet();
+				return range;
+			}
+			myMisses.incrementAndGet();
+		}
+
+		int rangeBegin = Integer.MAX_VALUE;
+		int rangeEnd = Integer.MIN_VALUE;
+		for(Location location : DebuggerUtilsEx.allLineLocations(fromClass))
+		{
+			final int lnumber = DebuggerUtilsEx.getLineNumber(location, false);
+			if(lnumber <= 1)
+			{
+				// should be a native method, skipping
+				// sometimes compiler generates location where line number is exactly 1 (e.g. GWT)
+				// such locations are hardly correspond to real lines in code, so skipping them too
+				continue;
+			}
+			final Method method = DebuggerUtilsEx.getMethod(location);
+			if(method == null || DebuggerUtils.isSynthetic(method) || method.isBridge())
+			{
+				// do not take into account synthetic stuff
+				continue;
+			}
+			int locationLine = lnumber - 1;
+			if(compiled)
+			{
+				locationLine = DebuggerUtilsEx.bytecodeToSourceLine(psiFile, locationLine);
+				if(locationLine < 0)
+				{
+					continue;
+				}
+			}
+			rangeBegin = Math.min(rangeBegin, locationLine);
+			rangeEnd = Math.max(rangeEnd, locationLine);
+		}
+
+		int[] range = {rangeBegin, rangeEnd};
+		if(!compiled)
+		{
+			myLineRanges.put(fromClass, range);
+		}
+		return range;
+	}
+
 	@Nullable
 	public PsiMethod findMethod(PsiElement container, String className, String methodName, String methodSignature)
 	{
@@ -116,6 +116,7 @@ public abstract class SuspendContextImpl extends XSuspendContext implements Susp
 		finally
 		{
 			myIsResumed = true;
+			myDebugProcess.getManagerThread().cancelStaleCommands();
 		}
 	}
 
@@ -22,6 +22,9 @@ import com.intellij.java.debugger.impl.DebuggerTaskImpl;
  */
 public abstract class DebuggerCommandImpl extends DebuggerTaskImpl
 {
+	// System.nanoTime() when the command was put to the manager thread queue, 0 if it is not queued
+	private volatile long myScheduledTime;
+
 	protected abstract void action() throws Exception;
 
 	protected void commandCancelled()
@@ -46,6 +49,16 @@ public abstract class DebuggerCommandImpl extends DebuggerTaskImpl
 		}
 	}
 
+	public final long getScheduledTime()
+	{
+		return myScheduledTime;
+	}
+
+	public final void setScheduledTime(long scheduledTime)
+	{
+		myScheduledTime = scheduledTime;
+	}
+
 	public final void run() throws Exception
 	{
 		try
@@ -61,6 +61,13 @@ public abstract class DebuggerContextCommandImpl extends SuspendContextCommandIm
 		return myCustomSuspendContext;
 	}
 
+	@Override
+	public boolean isStale()
+	{
+		// a command for a custom thread is moved to the current context of the thread
+		return myCustomThread == null && super.isStale();
+	}
+
 	private ThreadReferenceProxyImpl getThread()
 	{
 		return myCustomThread != null ? myCustomThread : myDebuggerContext.getThreadProxy();
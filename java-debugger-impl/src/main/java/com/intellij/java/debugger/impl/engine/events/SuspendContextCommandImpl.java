@@ -103,6 +103,14 @@ public abstract class SuspendContextCommandImpl extends DebuggerCommandImpl {
     }
   }
 
+  /**
+   * @return true if the command was created for a suspend context which is already resumed, so it would only be cancelled
+   * when its turn comes
+   */
+  public boolean isStale() {
+    return mySuspendContext != null && mySuspendContext.isResumed();
+  }
+
   @Nullable
   public SuspendContextImpl getSuspendContext() {
     return mySuspendContext;
@@ -45,6 +45,8 @@ public class VirtualMachineProxyImpl implements JdiTimer, VirtualMachineProxy
 	private final DebugProcessImpl myDebugProcess;
 	private final VirtualMachine myVirtualMachine;
 	private int myTimeStamp = 0;
+	// incremented on every HotSwap, so caches of class locations know when to be dropped
+	private volatile int myRedefinitionCount = 0;
 	private int myPausePressedCount = 0;
 
 	// cached data
@@ -55,6 +57,13 @@ public class VirtualMachineProxyImpl implements JdiTimer, VirtualMachineProxy
 	private boolean myAllThreadsDirty = true;
 	private List<ReferenceType> myAllClasses;
 	private Map<ReferenceType, List<ReferenceType>> myNestedClassesCache = new HashMap<ReferenceType, List<ReferenceType>>();
+	// array -> index of the chunk -> values of the chunk elements
+	private Map<ArrayReference, Map<Integer, List<Value>>> myArrayChunks = new HashMap<ArrayReference, Map<Integer, List<Value>>>();
+
+	/**
+	 * Number of array elements fetched from the debuggee by a single request
+	 */
+	public static final int ARRAY_CHUNK_SIZE = 256;
 
 	public final Throwable mySuspendLogger = new Throwable();
 	private final boolean myVersionHigher_15;
@@ -169,6 +178,53 @@ public class VirtualMachineProxyImpl implements JdiTimer, VirtualMachineProxy
 		return nestedTypes;
 	}
 
+	/**
+	 * Returns the array element, fetching all the elements of its chunk with a single request; the fetched elements
+	 * are reused until the debuggee is resumed or a method is invoked in it.
+	 */
+	public Value getArrayElement(ArrayReference array, int index)
+	{
+		return getArrayChunk(array, index / ARRAY_CHUNK_SIZE).get(index % ARRAY_CHUNK_SIZE);
+	}
+
+	/**
+	 * Fetches the chunks of the array elements in [start, end) range which are not fetched yet.
+	 */
+	public void prefetchArrayElements(ArrayReference array, int start, int end)
+	{
+		for(int chunk = start / ARRAY_CHUNK_SIZE; chunk <= (end - 1) / ARRAY_CHUNK_SIZE; chunk++)
+		{
+			getArrayChunk(array, chunk);
+		}
+	}
+
+	private List<Value> getArrayChunk(ArrayReference array, int chunk)
+	{
+		DebuggerManagerThreadImpl.assertIsManagerThread();
+		Map<Integer, List<Value>> chunks = myArrayChunks.get(array);
+		if(chunks == null)
+		{
+			chunks = new HashMap<Integer, List<Value>>();
+			myArrayChunks.put(array, chunks);
+		}
+		List<Value> values = chunks.get(chunk);
+		if(values == null)
+		{
+			int start = chunk * ARRAY_CHUNK_SIZE;
+			values = array.getValues(start, Math.min(ARRAY_CHUNK_SIZE, array.length() - start));
+			chunks.put(chunk, values);
+		}
+		return values;
+	}
+
+	/**
+	 * Drops the fetched elements of the array, to be called after the array is modified by the debugger.
+	 */
+	public void clearArrayElements(ArrayReference array)
+	{
+		myArrayChunks.remove(array);
+	}
+
 	@Override
 	public List<ReferenceType> allClasses()
 	{
@@ -194,10 +250,19 @@ public class VirtualMachineProxyImpl implements JdiTimer, VirtualMachineProxy
 		}
 		finally
 		{
+			myRedefinitionCount++;
 			clearCaches();
 		}
 	}
 
+	/**
+	 * @return number of class redefinitions done in this VM, locations of classes computed before it was changed may be outdated
+	 */
+	public int getRedefinitionCount()
+	{
+		return myRedefinitionCount;
+	}
+
 	/**
 	 * @return a list of all ThreadReferenceProxies
 	 */
@@ -851,6 +916,10 @@ public class VirtualMachineProxyImpl implements JdiTimer, VirtualMachineProxy
 		{
 			myNestedClassesCache = new HashMap<ReferenceType, List<ReferenceType>>(myNestedClassesCache.size());
 		}
+		if(!myArrayChunks.isEmpty())
+		{
+			myArrayChunks = new HashMap<ArrayReference, Map<Integer, List<Value>>>();
+		}
 		//myAllThreadsDirty = true;
 		myTimeStamp++;
 	}
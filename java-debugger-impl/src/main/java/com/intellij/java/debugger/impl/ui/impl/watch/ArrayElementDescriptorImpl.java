@@ -79,7 +79,7 @@ public class ArrayElementDescriptorImpl extends ValueDescriptorImpl implements A
 	@Override
 	public Value calcValue(EvaluationContextImpl evaluationContext) throws EvaluateException
 	{
-		return getArrayElement(myArray, myIndex);
+		return getArrayElement(evaluationContext.getDebugProcess().getVirtualMachineProxy(), myArray, myIndex);
 	}
 
 	public static Value getArrayElement(ArrayReference reference, int idx) throws EvaluateException
@@ -94,6 +94,21 @@ public class ArrayElementDescriptorImpl extends ValueDescriptorImpl implements A
 		}
 	}
 
+	/**
+	 * Same as {@link #getArrayElement(ArrayReference, int)}, but fetches the neighbour elements along with the requested one
+	 */
+	public static Value getArrayElement(VirtualMachineProxyImpl virtualMachine, ArrayReference reference, int idx) throws EvaluateException
+	{
+		try
+		{
+			return virtualMachine.getArrayElement(reference, idx);
+		}
+		catch(ObjectCollectedException e)
+		{
+			throw EvaluateExceptionUtil.ARRAY_WAS_COLLECTED;
+		}
+	}
+
 	@Override
 	public PsiExpression getDescriptorEvaluation(DebuggerContext context) throws EvaluateException
 	{
@@ -136,6 +151,7 @@ public class ArrayElementDescriptorImpl extends ValueDescriptorImpl implements A
 						public void setValue(EvaluationContextImpl evaluationContext, Value newValue) throws ClassNotLoadedException, InvalidTypeException, EvaluateException
 						{
 							array.setValue(elementDescriptor.getIndex(), preprocessValue(evaluationContext, newValue, arrType.componentType()));
+							evaluationContext.getDebugProcess().getVirtualMachineProxy().clearArrayElements(array);
 							update(debuggerContext);
 						}
 
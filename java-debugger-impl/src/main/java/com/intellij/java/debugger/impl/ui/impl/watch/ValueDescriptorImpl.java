@@ -417,6 +417,14 @@ public abstract class ValueDescriptorImpl extends NodeDescriptorImpl implements
 		return descriptor;
 	}
 
+	/**
+	 * @return true if the label of this descriptor is not truncated
+	 */
+	public boolean isFullValue()
+	{
+		return myFullValue;
+	}
+
 	@Override
 	public void setValueLabel(String label)
 	{
@@ -23,10 +23,13 @@ import com.intellij.java.debugger.impl.DebuggerManagerEx;
 import com.intellij.java.debugger.impl.DebuggerUtilsEx;
 import com.intellij.java.debugger.impl.actions.ArrayAction;
 import com.intellij.java.debugger.impl.engine.ContextUtil;
+import com.intellij.java.debugger.impl.engine.DebugProcessImpl;
 import com.intellij.java.debugger.impl.engine.DebuggerManagerThreadImpl;
 import com.intellij.java.debugger.impl.engine.JavaValue;
 import com.intellij.java.debugger.impl.engine.evaluation.EvaluationContextImpl;
 import com.intellij.java.debugger.impl.engine.evaluation.TextWithImportsImpl;
+import com.intellij.java.debugger.impl.engine.events.SuspendContextCommandImpl;
+import com.intellij.java.debugger.impl.jdi.VirtualMachineProxyImpl;
 import com.intellij.java.debugger.impl.memory.utils.ErrorsValueGroup;
 import com.intellij.java.debugger.impl.settings.NodeRendererSettings;
 import com.intellij.java.debugger.impl.settings.ViewsGeneralSettings;
@@ -130,6 +133,7 @@ public class ArrayRenderer extends NodeRendererImpl
 		NodeDescriptorFactory descriptorFactory = builder.getDescriptorManager();
 
 		ArrayReference array = (ArrayReference) value;
+		VirtualMachineProxyImpl virtualMachine = ((EvaluationContextImpl) evaluationContext).getDebugProcess().getVirtualMachineProxy();
 		int arrayLength = array.length();
 		if(arrayLength > 0)
 		{
@@ -151,7 +155,7 @@ public class ArrayRenderer extends NodeRendererImpl
 			{
 				for(; idx <= end; idx++)
 				{
-					if(ViewsGeneralSettings.getInstance().HIDE_NULL_ARRAY_ELEMENTS && elementIsNull(array, idx))
+					if(ViewsGeneralSettings.getInstance().HIDE_NULL_ARRAY_ELEMENTS && elementIsNull(virtualMachine, array, idx))
 					{
 						hiddenNulls = true;
 						continue;
@@ -190,16 +194,39 @@ public class ArrayRenderer extends NodeRendererImpl
 				if(!myForced && idx < end)
 				{
 					builder.tooManyChildren(end - idx);
+					prefetchNextPage((EvaluationContextImpl) evaluationContext, array, idx + 1, Math.min(end + 1, idx + 1 + myEntriesLimit));
 				}
 			}
 		}
 	}
 
-	private static boolean elementIsNull(ArrayReference arrayReference, int index)
+	/**
+	 * Fetches elements of the next page in background, so they are ready when the user asks for more elements
+	 */
+	private static void prefetchNextPage(EvaluationContextImpl evaluationContext, ArrayReference array, int start, int end)
+	{
+		DebugProcessImpl debugProcess = evaluationContext.getDebugProcess();
+		debugProcess.getManagerThread().schedule(new SuspendContextCommandImpl(evaluationContext.getSuspendContext())
+		{
+			@Override
+			public Priority getPriority()
+			{
+				return Priority.LOWEST;
+			}
+
+			@Override
+			public void contextAction() throws Exception
+			{
+				debugProcess.getVirtualMachineProxy().prefetchArrayElements(array, start, end);
+			}
+		});
+	}
+
+	private static boolean elementIsNull(VirtualMachineProxyImpl virtualMachine, ArrayReference arrayReference, int index)
 	{
 		try
 		{
-			return ArrayElementDescriptorImpl.getArrayElement(arrayReference, index) == null;
+			return ArrayElementDescriptorImpl.getArrayElement(virtualMachine, arrayReference, index) == null;
 		}
 		catch(EvaluateException e)
 		{
@@ -281,6 +308,7 @@ public class ArrayRenderer extends NodeRendererImpl
 			}
 
 			ArrayReference array = (ArrayReference) value;
+			VirtualMachineProxyImpl virtualMachine = ((EvaluationContextImpl) evaluationContext).getDebugProcess().getVirtualMachineProxy();
 			int arrayLength = array.length();
 			if(arrayLength > 0)
 			{
@@ -310,8 +338,8 @@ public class ArrayRenderer extends NodeRendererImpl
 					{
 						try
 						{
-							if(DebuggerUtilsEx.evaluateBoolean(cachedEvaluator.getEvaluator(evaluationContext.getProject()), (EvaluationContextImpl) evaluationContext.createEvaluationContext(array
-									.getValue(idx))))
+							if(DebuggerUtilsEx.evaluateBoolean(cachedEvaluator.getEvaluator(evaluationContext.getProject()), (EvaluationContextImpl) evaluationContext.createEvaluationContext(
+									virtualMachine.getArrayElement(array, idx))))
 							{
 
 								DebuggerTreeNode arrayItemNode = nodeManager.createNode(descriptorFactory.getArrayItemDescriptor(builder.getParentDescriptor(), array, idx), evaluationContext);
@@ -15,6 +15,7 @@
  */
 package com.intellij.java.debugger.impl.ui.tree.render;
 
+import com.intellij.java.debugger.DebuggerBundle;
 import com.intellij.java.debugger.DebuggerManager;
 import com.intellij.java.debugger.engine.DebugProcess;
 import com.intellij.java.debugger.engine.DebugProcessAdapter;
@@ -48,6 +49,11 @@ public class BatchEvaluator {
   private boolean myBatchEvaluatorChecked;
   private ObjectReference myBatchEvaluatorObject;
   private Method myBatchEvaluatorMethod;
+  private Method myPackedEvaluatorMethod;
+
+  // tags of the values packed by BatchEvaluatorServer.evaluatePacked
+  private static final char PACKED_NULL = 'N';
+  private static final char PACKED_STRING = 'S';
 
   private static final Key<BatchEvaluator> BATCH_EVALUATOR_KEY = Key.create("BatchEvaluator");
   public static final Key<Boolean> REMOTE_SESSION_KEY = Key.create("is_remote_session_key");
@@ -61,6 +67,7 @@ public class BatchEvaluator {
         myBatchEvaluatorChecked = false;
         myBatchEvaluatorObject= null;
         myBatchEvaluatorMethod = null;
+        myPackedEvaluatorMethod = null;
       }
     });
   }
@@ -106,6 +113,8 @@ public class BatchEvaluator {
 
           if(myBatchEvaluatorObject != null) {
             myBatchEvaluatorMethod = batchEvaluatorClass.concreteMethodByName("evaluate", "([Ljava/lang/Object;)[Ljava/lang/Object;");
+            // absent in the older runtime, if it's the one on the debuggee class path
+            myPackedEvaluatorMethod = batchEvaluatorClass.concreteMethodByName("evaluatePacked", "([Ljava/lang/Object;I)[C");
           }
         }
       }
@@ -187,6 +196,26 @@ public class BatchEvaluator {
       ArrayReference argArray = debugProcess.newInstance(objectArrayClass, values.size());
       ((SuspendContextImpl)evaluationContext.getSuspendContext()).keep(argArray); // to avoid ObjectCollectedException
       argArray.setValues(values);
+      if (myPackedEvaluatorMethod != null) {
+        int maxLength = 0;
+        for (ToStringCommand request : requests) {
+          if (request.getMaxLength() <= 0) {
+            maxLength = 0;
+            break;
+          }
+          maxLength = Math.max(maxLength, request.getMaxLength());
+        }
+        List<Value> argList = new ArrayList<Value>(2);
+        argList.add(argArray);
+        argList.add(myBatchEvaluatorObject.virtualMachine().mirrorOf(maxLength));
+        Value value = debugProcess.invokeMethod(evaluationContext, myBatchEvaluatorObject, myPackedEvaluatorMethod, argList);
+        if (value instanceof ArrayReference) {
+          ((SuspendContextImpl)evaluationContext.getSuspendContext()).keep((ArrayReference)value); // to avoid ObjectCollectedException
+          // all the results are read by a single request
+          readPackedResults(requests, ((ArrayReference)value).getValues());
+        }
+        return true;
+      }
       List argList = new ArrayList(1);
       argList.add(argArray);
       Value value = debugProcess.invokeMethod(evaluationContext, myBatchEvaluatorObject,
@@ -231,5 +260,30 @@ public class BatchEvaluator {
     return false;
   }
 
+  private static void readPackedResults(List<ToStringCommand> requests, List<Value> packed) {
+    int pos = 0;
+    for (ToStringCommand request : requests) {
+      char tag = ((CharValue)packed.get(pos++)).value();
+      if (tag == PACKED_NULL) {
+        request.evaluationResult(null);
+      }
+      else {
+        int length = ((CharValue)packed.get(pos)).value() << 16 | ((CharValue)packed.get(pos + 1)).value();
+        pos += 2;
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+          text.append(((CharValue)packed.get(pos++)).value());
+        }
+        if (tag == PACKED_STRING) {
+          request.evaluationResult(text.toString());
+        }
+        else {
+          request.evaluationError(DebuggerBundle.message("evaluation.error.method.exception", text.toString()));
+        }
+      }
+      request.setEvaluated();
+    }
+  }
+
 
 }
@@ -60,6 +60,13 @@ public abstract class ToStringCommand implements SuspendContextCommand {
     return myEvaluationContext.getSuspendContext();
   }
 
+  /**
+   * @return length the result is going to be truncated to anyway, so the evaluator may not transfer the rest; 0 if the full result is needed
+   */
+  public int getMaxLength() {
+    return 0;
+  }
+
   public abstract void evaluationResult(String message);
   public abstract void evaluationError (String message);
 
@@ -30,6 +30,7 @@ import com.intellij.java.debugger.engine.evaluation.EvaluationContext;
 import com.intellij.java.debugger.impl.DebuggerUtilsEx;
 import com.intellij.java.debugger.impl.ui.tree.DebuggerTreeNode;
 import com.intellij.java.debugger.ui.tree.NodeDescriptor;
+import com.intellij.java.debugger.impl.ui.impl.watch.ValueDescriptorImpl;
 import com.intellij.java.debugger.impl.ui.tree.ValueDescriptor;
 import consulo.util.xml.serializer.JDOMExternalizerUtil;
 import consulo.util.lang.StringUtil;
@@ -100,6 +101,12 @@ public class ToStringRenderer extends NodeRendererImpl implements OnDemandRender
 		final Value value = valueDescriptor.getValue();
 		BatchEvaluator.getBatchEvaluator(evaluationContext.getDebugProcess()).invoke(new ToStringCommand(evaluationContext, value)
 		{
+			@Override
+			public int getMaxLength()
+			{
+				return valueDescriptor instanceof ValueDescriptorImpl && ((ValueDescriptorImpl) valueDescriptor).isFullValue() ? 0 : DebuggerUtilsEx.MAX_LABEL_LENGTH;
+			}
+
 			@Override
 			public void evaluationResult(String message)
 			{
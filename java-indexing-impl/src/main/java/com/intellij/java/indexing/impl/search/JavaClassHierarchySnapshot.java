@@ -0,0 +1,121 @@
+/*
+ * Copyright 2000-2015 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.indexing.impl.search;
+
+import com.intellij.java.indexing.search.searches.DirectClassInheritorsSearch;
+import com.intellij.java.language.psi.PsiClass;
+import consulo.application.ApplicationManager;
+import consulo.application.progress.ProgressIndicator;
+import consulo.application.progress.ProgressManager;
+import consulo.application.util.CachedValueProvider;
+import consulo.application.util.CachedValuesManager;
+import consulo.application.util.concurrent.JobLauncher;
+import consulo.application.util.function.Computable;
+import consulo.language.impl.psi.PsiAnchor;
+import consulo.language.psi.PsiModificationTracker;
+import consulo.language.psi.scope.GlobalSearchScope;
+import consulo.project.Project;
+import consulo.project.content.ProjectRootModificationTracker;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Direct inheritors of the classes which were searched for inheritors in the project, kept until any PSI or the project roots
+ * change, so repeated and nested transitive inheritor searches do not query the super class name index again for the same classes.
+ * The lists include anonymous and local classes, which edits inside code blocks add and remove without changing the java
+ * structure, so the snapshot can't outlive a PSI modification.
+ * <p>
+ * Classes are stored as {@link PsiAnchor}s, which are just file and stub ids for the classes having stubs,
+ * so the snapshot does not keep PSI or AST of the hierarchy loaded.
+ */
+final class JavaClassHierarchySnapshot {
+  private static final PsiAnchor[] EMPTY_ARRAY = new PsiAnchor[0];
+
+  private final Project myProject;
+  // class -> its direct inheritors in all scope, including anonymous ones
+  private final Map<PsiAnchor, PsiAnchor[]> myDirectInheritors = new ConcurrentHashMap<>();
+
+  private JavaClassHierarchySnapshot(@Nonnull Project project) {
+    myProject = project;
+  }
+
+  @Nonnull
+  static JavaClassHierarchySnapshot getInstance(@Nonnull Project project) {
+    return CachedValuesManager.getManager(project).getCachedValue(project, () -> CachedValueProvider.Result.create(
+      new JavaClassHierarchySnapshot(project), PsiModificationTracker.MODIFICATION_COUNT,
+      ProjectRootModificationTracker.getInstance(project)));
+  }
+
+  /**
+   * Finds direct inheritors of all the given classes, concurrently when called outside of read action.
+   *
+   * @return direct inheritors of every class in the order of the classes
+   */
+  @Nonnull
+  List<PsiAnchor[]> getDirectInheritors(@Nonnull List<PsiAnchor> classes, @Nullable ProgressIndicator progress) {
+    List<PsiAnchor> missing = new ArrayList<>();
+    for (PsiAnchor anchor : classes) {
+      if (!myDirectInheritors.containsKey(anchor)) {
+        missing.add(anchor);
+      }
+    }
+    if (missing.size() > 1 && !ApplicationManager.getApplication().isReadAccessAllowed()) {
+      // workers take read actions themselves, which would deadlock with a pending write action if the caller held one
+      JobLauncher.getInstance().invokeConcurrentlyUnderProgress(missing, progress, anchor -> {
+        getDirectInheritors(anchor);
+        return true;
+      });
+    }
+    List<PsiAnchor[]> result = new ArrayList<>(classes.size());
+    for (PsiAnchor anchor : classes) {
+      result.add(getDirectInheritors(anchor));
+    }
+    return result;
+  }
+
+  @Nonnull
+  private PsiAnchor[] getDirectInheritors(@Nonnull PsiAnchor anchor) {
+    PsiAnchor[] inheritors = myDirectInheritors.get(anchor);
+    if (inheritors == null) {
+      inheritors = computeDirectInheritors(anchor);
+      PsiAnchor[] previous = myDirectInheritors.putIfAbsent(anchor, inheritors);
+      if (previous != null) {
+        inheritors = previous;
+      }
+    }
+    return inheritors;
+  }
+
+  @Nonnull
+  private PsiAnchor[] computeDirectInheritors(@Nonnull PsiAnchor anchor) {
+    ProgressManager.checkCanceled();
+    PsiClass psiClass = ApplicationManager.getApplication().runReadAction((Computable<PsiClass>) () -> (PsiClass) anchor.retrieve());
+    if (psiClass == null) {
+      return EMPTY_ARRAY;
+    }
+    List<PsiAnchor> inheritors = new ArrayList<>();
+    DirectClassInheritorsSearch.search(psiClass, GlobalSearchScope.allScope(myProject), true, false).forEach(inheritor -> {
+      inheritors.add(ApplicationManager.getApplication().runReadAction((Computable<PsiAnchor>) () -> PsiAnchor.create(inheritor)));
+      return true;
+    });
+    return inheritors.isEmpty() ? EMPTY_ARRAY : inheritors.toArray(EMPTY_ARRAY);
+  }
+}
@@ -27,24 +27,23 @@ import consulo.application.ApplicationManager;
 import consulo.application.progress.ProgressIndicator;
 import consulo.application.progress.ProgressIndicatorProvider;
 import consulo.application.progress.ProgressManager;
-import consulo.application.util.ReadActionProcessor;
 import consulo.application.util.function.Computable;
 import consulo.application.util.function.Processor;
 import consulo.content.scope.SearchScope;
 import consulo.java.language.module.util.JavaClassNames;
 import consulo.language.impl.psi.PsiAnchor;
 import consulo.language.psi.PsiBundle;
+import consulo.language.psi.PsiElement;
 import consulo.language.psi.PsiUtilCore;
-import consulo.language.psi.scope.GlobalSearchScope;
 import consulo.language.psi.scope.PsiSearchScopeUtil;
 import consulo.logging.Logger;
 import consulo.project.Project;
 import consulo.project.util.query.QueryExecutorBase;
-import consulo.util.collection.Stack;
-import consulo.util.lang.ref.Ref;
 
 import jakarta.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 @ExtensionImpl
@@ -92,69 +91,70 @@ public class JavaClassInheritorsSearcher extends QueryExecutorBase<PsiClass, Cla
       return;
     }
 
-    final Ref<PsiClass> currentBase = Ref.create(null);
-    final Stack<PsiAnchor> stack = new Stack<PsiAnchor>();
+    // inheritors are searched level by level: direct inheritors of all the classes of a level are found concurrently
+    // and then passed to the consumer in this thread, so the results are reported while the search goes deeper
+    final JavaClassHierarchySnapshot snapshot = JavaClassHierarchySnapshot.getInstance(project);
+    final ProgressIndicator progress = ProgressIndicatorProvider.getGlobalProgressIndicator();
     final Set<PsiAnchor> processed = new HashSet<>();
+    List<PsiAnchor> level = new ArrayList<>();
+    level.add(ApplicationManager.getApplication().runReadAction((Computable<PsiAnchor>) () -> PsiAnchor.create(baseClass)));
+    processed.addAll(level);
 
-    final Processor<PsiClass> processor = new ReadActionProcessor<PsiClass>() {
-      @Override
-      public boolean processInReadAction(PsiClass candidate) {
-        ProgressManager.checkCanceled();
-
-        if (parameters.isCheckInheritance() || parameters.isCheckDeep() && !(candidate instanceof PsiAnonymousClass)) {
-          if (!candidate.isInheritor(currentBase.get(), false)) {
-            return true;
-          }
-        }
-
-        if (PsiSearchScopeUtil.isInScope(searchScope, candidate)) {
-          if (candidate instanceof PsiAnonymousClass) {
-            return consumer.process(candidate);
-          }
+    while (!level.isEmpty()) {
+      ProgressManager.checkCanceled();
 
-          final String name = candidate.getName();
-          if (name != null && parameters.getNameCondition().value(name) && !consumer.process(candidate)) {
-            return false;
-          }
+      final List<PsiAnchor[]> inheritors = snapshot.getDirectInheritors(level, progress);
+      final List<PsiAnchor> nextLevel = new ArrayList<>();
+      for (int i = 0; i < level.size(); i++) {
+        final PsiAnchor baseAnchor = level.get(i);
+        final PsiAnchor[] candidates = inheritors.get(i);
+        if (candidates.length == 0) {
+          continue;
         }
-
-        if (parameters.isCheckDeep() && !(candidate instanceof PsiAnonymousClass) && !isFinal(candidate)) {
-          stack.push(PsiAnchor.create(candidate));
+        final PsiClass currentBase = ApplicationManager.getApplication().runReadAction((Computable<PsiClass>) () -> (PsiClass) baseAnchor.retrieve());
+        if (currentBase == null) {
+          continue;
         }
-        return true;
-      }
-    };
-
-    ApplicationManager.getApplication().runReadAction(new Runnable() {
-      @Override
-      public void run() {
-        stack.push(PsiAnchor.create(baseClass));
-      }
-    });
-    final GlobalSearchScope projectScope = GlobalSearchScope.allScope(project);
-
-    while (!stack.isEmpty()) {
-      ProgressManager.checkCanceled();
-
-      final PsiAnchor anchor = stack.pop();
-      if (!processed.add(anchor)) {
-        continue;
-      }
-
-      PsiClass psiClass = ApplicationManager.getApplication().runReadAction(new Computable<PsiClass>() {
-        @Override
-        public PsiClass compute() {
-          return (PsiClass) anchor.retrieve();
+        for (final PsiAnchor candidateAnchor : candidates) {
+          final boolean toContinue = ApplicationManager.getApplication().runReadAction((Computable<Boolean>) () -> {
+            ProgressManager.checkCanceled();
+            PsiElement element = candidateAnchor.retrieve();
+            if (!(element instanceof PsiClass)) {
+              return true;
+            }
+            PsiClass candidate = (PsiClass) element;
+            if (candidate instanceof PsiAnonymousClass && !parameters.isIncludeAnonymous()) {
+              return true;
+            }
+            if (parameters.isCheckInheritance() || parameters.isCheckDeep() && !(candidate instanceof PsiAnonymousClass)) {
+              if (!candidate.isInheritor(currentBase, false)) {
+                return true;
+              }
+            }
+
+            if (PsiSearchScopeUtil.isInScope(searchScope, candidate)) {
+              if (candidate instanceof PsiAnonymousClass) {
+                return consumer.process(candidate);
+              }
+
+              final String name = candidate.getName();
+              if (name != null && parameters.getNameCondition().value(name) && !consumer.process(candidate)) {
+                return false;
+              }
+            }
+
+            if (parameters.isCheckDeep() && !(candidate instanceof PsiAnonymousClass) && !candidate.hasModifierProperty(PsiModifier.FINAL) &&
+                processed.add(candidateAnchor)) {
+              nextLevel.add(candidateAnchor);
+            }
+            return true;
+          });
+          if (!toContinue) {
+            return;
+          }
         }
-      });
-      if (psiClass == null) {
-        continue;
-      }
-
-      currentBase.set(psiClass);
-      if (!DirectClassInheritorsSearch.search(psiClass, projectScope, parameters.isIncludeAnonymous(), false).forEach(processor)) {
-        return;
       }
+      level = nextLevel;
     }
   }
 
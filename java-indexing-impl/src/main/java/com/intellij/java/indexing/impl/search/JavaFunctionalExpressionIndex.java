@@ -18,6 +18,7 @@ package com.intellij.java.indexing.impl.search;
 import com.intellij.java.language.impl.JavaFileType;
 import com.intellij.java.language.impl.psi.impl.java.stubs.JavaStubElementTypes;
 import com.intellij.java.language.psi.*;
+import com.intellij.java.language.psi.util.PsiUtil;
 import consulo.annotation.component.ExtensionImpl;
 import consulo.index.io.DataIndexer;
 import consulo.index.io.EnumeratorStringDescriptor;
@@ -25,6 +26,7 @@ import consulo.index.io.ID;
 import consulo.index.io.KeyDescriptor;
 import consulo.index.io.data.DataExternalizer;
 import consulo.index.io.data.DataInputOutputUtil;
+import consulo.language.ast.IElementType;
 import consulo.language.psi.PsiElement;
 import consulo.language.psi.PsiFile;
 import consulo.language.psi.SyntaxTraverser;
@@ -123,7 +125,7 @@ public class JavaFunctionalExpressionIndex extends FileBasedIndexExtension<Strin
                 methodsMap.put(methodName, holders);
               }
               holders.add(new IndexHolder(expression instanceof PsiLambdaExpression ? ((PsiLambdaExpression) expression).getParameterList().getParametersCount() : -1,
-                  expressionList.getExpressions().length, LambdaUtil.getLambdaIdx(expressionList, expression)));
+                  expressionList.getExpressions().length, LambdaUtil.getLambdaIdx(expressionList, expression), getReturnShape(expression)));
             }
           }
         }
@@ -133,6 +135,43 @@ public class JavaFunctionalExpressionIndex extends FileBasedIndexExtension<Strin
     };
   }
 
+  /**
+   * Determines syntactically whether the functional expression can be compatible only with void or only with value-returning
+   * functional interface methods (JLS 15.27.2), so the files where it cannot match the searched interface are rejected without loading PSI.
+   */
+  private static int getReturnShape(PsiFunctionalExpression expression) {
+    if (!(expression instanceof PsiLambdaExpression)) {
+      return IndexHolder.ANY_RETURN;
+    }
+    final PsiElement body = ((PsiLambdaExpression) expression).getBody();
+    if (body instanceof PsiExpression) {
+      // only statement expressions can be void-compatible
+      return body instanceof PsiMethodCallExpression || body instanceof PsiNewExpression || body instanceof PsiAssignmentExpression ||
+          body instanceof PsiPostfixExpression || body instanceof PsiPrefixExpression && isIncrementOrDecrement((PsiPrefixExpression) body)
+          ? IndexHolder.ANY_RETURN : IndexHolder.VALUE_RETURN;
+    }
+    if (!(body instanceof PsiCodeBlock)) {
+      return IndexHolder.ANY_RETURN;
+    }
+    final PsiReturnStatement[] returns = PsiUtil.findReturnStatements((PsiCodeBlock) body);
+    if (returns.length > 0) {
+      return returns[0].getReturnValue() == null ? IndexHolder.VOID_RETURN : IndexHolder.VALUE_RETURN;
+    }
+    // a block without returns is value-compatible only when it cannot complete normally
+    final PsiStatement[] statements = ((PsiCodeBlock) body).getStatements();
+    if (statements.length == 0) {
+      return IndexHolder.VOID_RETURN;
+    }
+    final PsiStatement last = statements[statements.length - 1];
+    return last instanceof PsiExpressionStatement || last instanceof PsiDeclarationStatement || last instanceof PsiEmptyStatement
+        ? IndexHolder.VOID_RETURN : IndexHolder.ANY_RETURN;
+  }
+
+  private static boolean isIncrementOrDecrement(PsiPrefixExpression expression) {
+    final IElementType tokenType = expression.getOperationTokenType();
+    return tokenType == JavaTokenType.PLUSPLUS || tokenType == JavaTokenType.MINUSMINUS;
+  }
+
   @Nonnull
   @Override
   public KeyDescriptor<String> getKeyDescriptor() {
@@ -150,6 +189,7 @@ public class JavaFunctionalExpressionIndex extends FileBasedIndexExtension<Strin
           DataInputOutputUtil.writeINT(out, holder.getLambdaParamsNumber());
           DataInputOutputUtil.writeINT(out, holder.getMethodArgsLength());
           DataInputOutputUtil.writeINT(out, holder.getFunctionExpressionIndex());
+          out.writeByte(holder.getReturnShape());
         }
       }
 
@@ -158,7 +198,7 @@ public class JavaFunctionalExpressionIndex extends FileBasedIndexExtension<Strin
         int l = DataInputOutputUtil.readINT(in);
         final Collection<IndexHolder> holders = new HashSet<IndexHolder>(l);
         while (l-- > 0) {
-          holders.add(new IndexHolder(DataInputOutputUtil.readINT(in), DataInputOutputUtil.readINT(in), DataInputOutputUtil.readINT(in)));
+          holders.add(new IndexHolder(DataInputOutputUtil.readINT(in), DataInputOutputUtil.readINT(in), DataInputOutputUtil.readINT(in), in.readByte()));
         }
         return holders;
       }
@@ -178,18 +218,24 @@ public class JavaFunctionalExpressionIndex extends FileBasedIndexExtension<Strin
 
   @Override
   public int getVersion() {
-    return 0;
+    return 1;
   }
 
   public static class IndexHolder {
+    public static final int ANY_RETURN = 0;
+    public static final int VOID_RETURN = 1;
+    public static final int VALUE_RETURN = 2;
+
     private final int myLambdaParamsNumber;
     private final int myMethodArgsLength;
     private final int myFunctionExpressionIndex;
+    private final int myReturnShape;
 
-    public IndexHolder(int lambdaParamsNumber, int methodArgsLength, int functionExpressionIndex) {
+    public IndexHolder(int lambdaParamsNumber, int methodArgsLength, int functionExpressionIndex, int returnShape) {
       myLambdaParamsNumber = lambdaParamsNumber;
       myMethodArgsLength = methodArgsLength;
       myFunctionExpressionIndex = functionExpressionIndex;
+      myReturnShape = returnShape;
     }
 
     public int getLambdaParamsNumber() {
@@ -204,6 +250,18 @@ public class JavaFunctionalExpressionIndex extends FileBasedIndexExtension<Strin
       return myFunctionExpressionIndex;
     }
 
+    /**
+     * @return {@link #VOID_RETURN} or {@link #VALUE_RETURN} if the expression is compatible only with void or only with
+     * value-returning functional interface methods, {@link #ANY_RETURN} otherwise
+     */
+    public int getReturnShape() {
+      return myReturnShape;
+    }
+
+    public boolean isReturnCompatible(boolean voidMethod) {
+      return myReturnShape == ANY_RETURN || (myReturnShape == VOID_RETURN) == voidMethod;
+    }
+
     @Override
     public boolean equals(Object o) {
       if (this == o) {
@@ -224,6 +282,9 @@ public class JavaFunctionalExpressionIndex extends FileBasedIndexExtension<Strin
       if (myFunctionExpressionIndex != holder.myFunctionExpressionIndex) {
         return false;
       }
+      if (myReturnShape != holder.myReturnShape) {
+        return false;
+      }
 
       return true;
     }
@@ -233,6 +294,7 @@ public class JavaFunctionalExpressionIndex extends FileBasedIndexExtension<Strin
       int result = myLambdaParamsNumber;
       result = 31 * result + myMethodArgsLength;
       result = 31 * result + myFunctionExpressionIndex;
+      result = 31 * result + myReturnShape;
       return result;
     }
   }
@@ -27,6 +27,8 @@ import consulo.annotation.access.RequiredReadAction;
 import consulo.annotation.component.ExtensionImpl;
 import consulo.application.ApplicationManager;
 import consulo.application.ReadAction;
+import consulo.application.progress.ProgressIndicatorProvider;
+import consulo.application.util.concurrent.JobLauncher;
 import consulo.application.util.ReadActionProcessor;
 import consulo.application.util.function.CommonProcessors;
 import consulo.application.util.function.Computable;
@@ -56,6 +58,7 @@ import consulo.virtualFileSystem.VirtualFile;
 
 import jakarta.annotation.Nonnull;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static consulo.util.collection.ContainerUtil.addIfNotNull;
 import static consulo.util.collection.ContainerUtil.process;
@@ -63,7 +66,7 @@ import static consulo.util.collection.ContainerUtil.process;
 @ExtensionImpl
 public class JavaFunctionalExpressionSearcher extends QueryExecutorBase<PsiFunctionalExpression, FunctionalExpressionSearch
   .SearchParameters> implements FunctionalExpressionSearchExecutor {
-  private static record ClassLambdaInfo(Project project, GlobalSearchScope scope, int expectedFunExprParamsCount) {
+  private static record ClassLambdaInfo(Project project, GlobalSearchScope scope, int expectedFunExprParamsCount, boolean voidFunction) {
   }
 
   private static final Logger LOG = Logger.getInstance(JavaFunctionalExpressionSearcher.class);
@@ -98,7 +101,10 @@ public class JavaFunctionalExpressionSearcher extends QueryExecutorBase<PsiFunct
                                                            LOG.assertTrue(functionalInterfaceMethod != null);
                                                            int expectedFunExprParamsCount =
                                                              functionalInterfaceMethod.getParameterTypes().length;
-                                                           return new ClassLambdaInfo(project, useScope, expectedFunExprParamsCount);
+                                                           final PsiMethod interfaceMethod = LambdaUtil.getFunctionalInterfaceMethod(aClass);
+                                                           boolean voidFunction =
+                                                             interfaceMethod != null && PsiType.VOID.equals(interfaceMethod.getReturnType());
+                                                           return new ClassLambdaInfo(project, useScope, expectedFunExprParamsCount, voidFunction);
                                                          });
 
     if (classLambdaInfo == null) {
@@ -108,6 +114,7 @@ public class JavaFunctionalExpressionSearcher extends QueryExecutorBase<PsiFunct
     final Project project = classLambdaInfo.project();
     final GlobalSearchScope useScope = classLambdaInfo.scope();
     final int expectedFunExprParamsCount = classLambdaInfo.expectedFunExprParamsCount();
+    final boolean voidFunction = classLambdaInfo.voidFunction();
 
     //collect all files with '::' and '->' in useScope
     Set<VirtualFile> candidateFiles = getFilesWithFunctionalExpressionsScope(project, new JavaSourceFilterScope(useScope));
@@ -141,7 +148,7 @@ public class JavaFunctionalExpressionSearcher extends QueryExecutorBase<PsiFunct
             new LinkedHashMap<VirtualFile, Set<JavaFunctionalExpressionIndex.IndexHolder>>();
           //functional expressions checker: number and type of parameters at call site should correspond to candidate method currently check
           final SuitableFilesProcessor processor =
-            new SuitableFilesProcessor(holders, expectedFunExprParamsCount, parametersCount, varArgs, parameters);
+            new SuitableFilesProcessor(holders, expectedFunExprParamsCount, voidFunction, parametersCount, varArgs, parameters);
           fileBasedIndex.processValues(JavaFunctionalExpressionIndex.JAVA_FUNCTIONAL_EXPRESSION_INDEX_ID,
                                        psiMethod.getName(),
                                        null,
@@ -183,14 +190,37 @@ public class JavaFunctionalExpressionSearcher extends QueryExecutorBase<PsiFunct
                                     Set<VirtualFile> filesToProcess,
                                     final int expectedFunExprParamsCount) {
     LOG.info("#usage files: " + filesToProcess.size());
-    process(filesToProcess, new ReadActionProcessor<VirtualFile>() {
+    // files are resolved concurrently, while the found expressions are passed to the consumer one at a time
+    final AtomicBoolean stopped = new AtomicBoolean();
+    final Processor<PsiFunctionalExpression> serialConsumer = expression -> {
+      synchronized (stopped) {
+        if (stopped.get()) {
+          return false;
+        }
+        if (!consumer.process(expression)) {
+          stopped.set(true);
+          return false;
+        }
+        return true;
+      }
+    };
+    final ReadActionProcessor<VirtualFile> fileProcessor = new ReadActionProcessor<VirtualFile>() {
       @RequiredReadAction
       @Override
       public boolean processInReadAction(VirtualFile file) {
         //resolve functional expressions to ensure that functional expression type is appropriate
-        return processFileWithFunctionalInterfaces(aClass, expectedFunExprParamsCount, consumer, file);
+        return processFileWithFunctionalInterfaces(aClass, expectedFunExprParamsCount, serialConsumer, file);
       }
-    });
+    };
+    if (filesToProcess.size() > 1 && !ApplicationManager.getApplication().isReadAccessAllowed()) {
+      // workers take read actions themselves, which would deadlock with a pending write action if the caller held one
+      JobLauncher.getInstance().invokeConcurrentlyUnderProgress(new ArrayList<>(filesToProcess),
+                                                                ProgressIndicatorProvider.getGlobalProgressIndicator(),
+                                                                fileProcessor);
+    }
+    else {
+      process(filesToProcess, fileProcessor);
+    }
   }
 
   private static Collection<PsiMethod> getCandidateMethodsWithSuitableParams(final PsiClass aClass,
@@ -384,17 +414,20 @@ public class JavaFunctionalExpressionSearcher extends QueryExecutorBase<PsiFunct
   private static class SuitableFilesProcessor implements FileBasedIndex.ValueProcessor<Collection<JavaFunctionalExpressionIndex.IndexHolder>> {
     private final Map<VirtualFile, Set<JavaFunctionalExpressionIndex.IndexHolder>> myHolders;
     private final int myExpectedFunExprParamsCount;
+    private final boolean myVoidFunction;
     private final int myParametersCount;
     private final boolean myVarArgs;
     private final PsiParameter[] myParameters;
 
     public SuitableFilesProcessor(Map<VirtualFile, Set<JavaFunctionalExpressionIndex.IndexHolder>> holders,
                                   int expectedFunExprParamsCount,
+                                  boolean voidFunction,
                                   int parametersCount,
                                   boolean varArgs,
                                   PsiParameter[] parameters) {
       myHolders = holders;
       myExpectedFunExprParamsCount = expectedFunExprParamsCount;
+      myVoidFunction = voidFunction;
       myParametersCount = parametersCount;
       myVarArgs = varArgs;
       myParameters = parameters;
@@ -405,7 +438,7 @@ public class JavaFunctionalExpressionSearcher extends QueryExecutorBase<PsiFunct
       Set<JavaFunctionalExpressionIndex.IndexHolder> savedHolders = myHolders.get(file);
       for (JavaFunctionalExpressionIndex.IndexHolder holder : holders) {
         final int lambdaParamsNumber = holder.getLambdaParamsNumber();
-        if (lambdaParamsNumber == myExpectedFunExprParamsCount || lambdaParamsNumber == -1) {
+        if ((lambdaParamsNumber == myExpectedFunExprParamsCount || lambdaParamsNumber == -1) && holder.isReturnCompatible(myVoidFunction)) {
           final boolean suitableParamNumbers;
           if (myVarArgs) {
             suitableParamNumbers = holder.getMethodArgsLength() >= myParametersCount - 1;
@@ -562,6 +562,11 @@ public class ClsFileImpl extends PsiBinaryFileImpl implements PsiJavaFile, PsiFi
 
   @Nonnull
   public static CharSequence decompile(@Nonnull VirtualFile file) {
+    return ClsMirrorTextCache.getInstance().getText(file, () -> doDecompile(file));
+  }
+
+  @Nonnull
+  private static CharSequence doDecompile(@Nonnull VirtualFile file) {
     PsiManager manager = PsiManager.getInstance(ProjectManager.getInstance().getDefaultProject());
     final ClsFileImpl clsFile = new ClsFileImpl(new ClassFileViewProvider(manager, file), true);
     final StringBuilder buffer = new StringBuilder();
@@ -0,0 +1,130 @@
+// Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.java.language.impl.psi.impl.compiled;
+
+import consulo.annotation.component.ComponentScope;
+import consulo.annotation.component.ServiceAPI;
+import consulo.annotation.component.ServiceImpl;
+import consulo.application.util.registry.Registry;
+import consulo.ide.ServiceManager;
+import consulo.virtualFileSystem.VirtualFile;
+import jakarta.annotation.Nonnull;
+import jakarta.inject.Singleton;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Least recently used decompiled texts of class files generated by the default decompiler, bounded by the total text length.
+ * <p>
+ * Documents of class files are only weakly held by the document manager, so browsing and debugging into libraries
+ * regenerates the same texts again and again; this cache keeps the most recent ones while keeping the heap they take flat.
+ * Entries are keyed by the file modification stamp, so texts of changed class files are never returned and just age out.
+ */
+@Singleton
+@ServiceAPI(ComponentScope.APPLICATION)
+@ServiceImpl
+public class ClsMirrorTextCache {
+  private static final String MAX_SIZE_KEY = "java.decompiled.text.cache.size.kb";
+  private static final int DEFAULT_MAX_SIZE_KB = 8192;
+
+  private final Map<CacheKey, String> myTexts = new LinkedHashMap<>(16, 0.75f, true);
+  private long mySize;
+  private long myHits;
+  private long myMisses;
+  private long myEvictions;
+
+  @Nonnull
+  public static ClsMirrorTextCache getInstance() {
+    return ServiceManager.getService(ClsMirrorTextCache.class);
+  }
+
+  @Nonnull
+  String getText(@Nonnull VirtualFile file, @Nonnull Supplier<? extends CharSequence> decompiler) {
+    CacheKey key = new CacheKey(file, file.getModificationStamp());
+    synchronized (myTexts) {
+      String text = myTexts.get(key);
+      if (text != null) {
+        myHits++;
+        return text;
+      }
+      myMisses++;
+    }
+
+    // decompiling takes read action, so it must not happen under the lock
+    String text = decompiler.get().toString();
+    long maxSize = getMaxSize();
+    if (text.length() > maxSize) {
+      return text;
+    }
+
+    synchronized (myTexts) {
+      String previous = myTexts.put(key, text);
+      if (previous != null) {
+        mySize -= previous.length();
+      }
+      mySize += text.length();
+      Iterator<String> iterator = myTexts.values().iterator();
+      while (mySize > maxSize && iterator.hasNext()) {
+        mySize -= iterator.next().length();
+        iterator.remove();
+        myEvictions++;
+      }
+    }
+    return text;
+  }
+
+  private static long getMaxSize() {
+    return Registry.intValue(MAX_SIZE_KEY, DEFAULT_MAX_SIZE_KB) * 1024L;
+  }
+
+  public void clear() {
+    synchronized (myTexts) {
+      myTexts.clear();
+      mySize = 0;
+    }
+  }
+
+  /**
+   * @return size of the cache and hit, miss and eviction counts since the application start, shown by the internal
+   * "Show Decompiled Text Cache Statistics" action
+   */
+  @Nonnull
+  public String getStatistics() {
+    synchronized (myTexts) {
+      long lookups = myHits + myMisses;
+      return "decompiled texts: " + myTexts.size() + ", chars: " + mySize +
+             ", hits: " + myHits + ", misses: " + myMisses +
+             ", hit rate: " + (lookups == 0 ? 0 : myHits * 100 / lookups) + "%, evictions: " + myEvictions;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getStatistics();
+  }
+
+  private static final class CacheKey {
+    private final VirtualFile myFile;
+    private final long myStamp;
+
+    private CacheKey(@Nonnull VirtualFile file, long stamp) {
+      myFile = file;
+      myStamp = stamp;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof CacheKey)) return false;
+      CacheKey key = (CacheKey) o;
+      return myStamp == key.myStamp && myFile.equals(key.myFile);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * myFile.hashCode() + Long.hashCode(myStamp);
+    }
+  }
+}
@@ -135,7 +135,7 @@ class FirstPassData implements SignatureParsing.TypeInfoProvider {
       if (p instanceof StringInnerClassEntry) {
         StringInnerClassEntry entry = (StringInnerClassEntry)p;
         TypeInfo.RefTypeInfo outer = toTypeInfo(entry.myOuterName, false);
-        p = new TypeInfoInnerClassEntry(outer, entry.myInnerName);
+        p = new TypeInfoInnerClassEntry(outer, StubBuildingVisitor.internName(entry.myInnerName));
         myMap.put(jvmName, p);
       }
       assert p instanceof TypeInfoInnerClassEntry;
@@ -144,7 +144,7 @@ class FirstPassData implements SignatureParsing.TypeInfoProvider {
     else if (jvmName.indexOf('$') >= 0 && !jvmName.equals(myTopLevelName) && (useGuesser || !myTrustInnerClasses)) {
       return StubBuildingVisitor.GUESSING_PROVIDER.toTypeInfo(jvmName);
     }
-    String name = jvmName.replace('/', '.');
+    String name = StubBuildingVisitor.internName(jvmName.replace('/', '.'));
     myMap.put(jvmName, new RegularClassEntry(name));
     return new TypeInfo.RefTypeInfo(name);
   }
@@ -14,6 +14,7 @@ import consulo.logging.Logger;
 import consulo.util.collection.ArrayUtil;
 import consulo.util.collection.ContainerUtil;
 import consulo.util.collection.SmartList;
+import consulo.util.interner.Interner;
 import consulo.util.lang.StringUtil;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
@@ -346,7 +347,7 @@ public class StubBuildingVisitor<T> extends ClassVisitor {
     byte flags = PsiFieldStubImpl.packFlags(isSet(access, Opcodes.ACC_ENUM), isSet(access, Opcodes.ACC_DEPRECATED), false, false);
     TypeInfo type = fieldType(desc, signature);
     String initializer = constToString(value, type, false, myFirstPassData);
-    PsiFieldStub stub = new PsiFieldStubImpl(myResult, name, type, initializer, flags);
+    PsiFieldStub stub = new PsiFieldStubImpl(myResult, internName(name), type, initializer, flags);
     PsiModifierListStub modList = new PsiModifierListStubImpl(stub, packFieldFlags(access));
     return new FieldAnnotationCollectingVisitor(stub, modList, myFirstPassData);
   }
@@ -404,7 +405,7 @@ public class StubBuildingVisitor<T> extends ClassVisitor {
       info = parseMethodDescription(desc, exceptions);
     }
 
-    PsiMethodStubImpl stub = new PsiMethodStubImpl(myResult, canonicalMethodName, info.returnType, flags, null);
+    PsiMethodStubImpl stub = new PsiMethodStubImpl(myResult, internName(canonicalMethodName), info.returnType, flags, null);
 
     PsiModifierListStub modList = new PsiModifierListStubImpl(stub, packMethodFlags(access, myResult.isInterface()));
 
@@ -434,7 +435,7 @@ public class StubBuildingVisitor<T> extends ClassVisitor {
         typeInfo = typeInfo.withEllipsis();
       }
 
-      String paramName = i < parameterNames.length ? parameterNames[i] : "p" + (i + 1);
+      String paramName = internName(i < parameterNames.length ? parameterNames[i] : "p" + (i + 1));
       PsiParameterStubImpl parameterStub = new PsiParameterStubImpl(parameterList, paramName, typeInfo, isEllipsisParam, true);
       paramStubs[i] = parameterStub;
       new PsiModifierListStubImpl(parameterStub, 0);
@@ -708,7 +709,7 @@ public class StubBuildingVisitor<T> extends ClassVisitor {
 
     private void setParameterName(@Nonnull String name, int paramIndex) {
       if (ClsParsingUtil.isJavaIdentifier(name, LanguageLevel.HIGHEST)) {
-        myParamStubs[paramIndex].setName(name);
+        myParamStubs[paramIndex].setName(internName(name));
       }
     }
   }
@@ -814,6 +815,14 @@ public class StubBuildingVisitor<T> extends ClassVisitor {
     return typeInfo;
   }
 
+  // names and type texts of library classes repeat across class files and projects, stubs built from them share the strings
+  private static final Interner<String> ourNameInterner = Interner.createWeakInterner();
+
+  @Nonnull
+  static String internName(@Nonnull String name) {
+    return ourNameInterner.intern(name);
+  }
+
   public static final Function<String, String> GUESSING_MAPPER = internalName -> {
     String canonicalText = internalName;
 
@@ -833,7 +842,7 @@ public class StubBuildingVisitor<T> extends ClassVisitor {
       }
     }
 
-    return canonicalText.replace('/', '.');
+    return internName(canonicalText.replace('/', '.'));
   };
 
   public static final SignatureParsing.TypeInfoProvider GUESSING_PROVIDER = SignatureParsing.TypeInfoProvider.from(GUESSING_MAPPER);
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2000-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.language.impl.psi.impl.source.resolve.graphInference;
+
+import consulo.application.util.registry.Registry;
+import consulo.language.psi.PsiElement;
+import consulo.logging.Logger;
+import consulo.util.lang.StringUtil;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+/**
+ * Work done by the inference started for a top-level call, including all the sessions nested into it on the same thread.
+ * <p>
+ * Every reduction and incorporation round is counted against the {@value #BUDGET_KEY} registry value; once the budget is spent,
+ * all the sessions of the call fail and their variables are left raw, so pathological nesting of generic lambdas
+ * degrades to raw types with an inference error instead of hanging the highlighting.
+ * While {@link InferenceProfile} is enabled, the counters and phase times are recorded to it when the top-level inference ends.
+ */
+final class InferenceBudget {
+  private static final Logger LOG = Logger.getInstance(InferenceBudget.class);
+  private static final String BUDGET_KEY = "java.inference.incorporation.budget";
+  private static final String ERROR_PREFIX = "Inference is too complex";
+
+  private static final ThreadLocal<InferenceBudget> ourCurrent = new ThreadLocal<>();
+  // replaces the registry value in tests, 0 means no replacement
+  private static volatile int ourTestLimit;
+
+  private final PsiElement myContext;
+  private final int myLimit;
+  @Nullable
+  private final InferenceProfile myProfile;
+  private final long myStart;
+  private int myDepth;
+  private boolean myExceeded;
+
+  int mySessions;
+  int myVariables;
+  int myBounds;
+  int myIterations;
+  long myReduceTime;
+  long myIncorporateTime;
+
+  private InferenceBudget(@Nullable PsiElement context, @Nullable InferenceProfile profile) {
+    myContext = context;
+    int testLimit = ourTestLimit;
+    myLimit = testLimit != 0 ? testLimit : Registry.intValue(BUDGET_KEY, 100000);
+    myProfile = profile;
+    myStart = profile != null ? System.nanoTime() : 0;
+  }
+
+  /**
+   * Starts tracking of a session; the top-level inference is started by the first session on the thread.
+   */
+  @Nonnull
+  static InferenceBudget enter(@Nullable PsiElement context) {
+    InferenceBudget budget = ourCurrent.get();
+    if (budget == null) {
+      budget = new InferenceBudget(context, InferenceProfile.getInstanceIfEnabled());
+      ourCurrent.set(budget);
+    }
+    budget.myDepth++;
+    budget.mySessions++;
+    return budget;
+  }
+
+  @TestOnly
+  static void setTestLimit(int limit) {
+    ourTestLimit = limit;
+  }
+
+  @Nullable
+  static InferenceBudget getCurrent() {
+    return ourCurrent.get();
+  }
+
+  void exit() {
+    if (--myDepth > 0) {
+      return;
+    }
+    ourCurrent.remove();
+    if (myExceeded) {
+      LOG.warn(getErrorMessage() + ": " + describeContext());
+    }
+    if (myProfile != null) {
+      myProfile.record(myContext, this, System.nanoTime() - myStart);
+    }
+  }
+
+  boolean isProfiling() {
+    return myProfile != null;
+  }
+
+  /**
+   * Counts one reduction and incorporation round.
+   *
+   * @return false if the budget is spent and the inference must stop
+   */
+  boolean step() {
+    myIterations++;
+    if (myLimit > 0 && myIterations > myLimit) {
+      myExceeded = true;
+    }
+    return !myExceeded;
+  }
+
+  boolean isExceeded() {
+    return myExceeded;
+  }
+
+  @Nonnull
+  String getErrorMessage() {
+    return ERROR_PREFIX + " (more than " + myLimit + " incorporation steps)";
+  }
+
+  static boolean isBudgetError(@Nullable String inferenceError) {
+    return inferenceError != null && inferenceError.contains(ERROR_PREFIX);
+  }
+
+  @Nonnull
+  private String describeContext() {
+    if (myContext == null || !myContext.isValid()) {
+      return String.valueOf(myContext);
+    }
+    return myContext.getContainingFile() + ":" + myContext.getTextRange().getStartOffset() + " " + StringUtil.first(myContext.getText(), 100, true);
+  }
+}
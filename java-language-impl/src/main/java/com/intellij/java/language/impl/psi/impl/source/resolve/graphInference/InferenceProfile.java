@@ -0,0 +1,154 @@
+/*
+ * Copyright 2000-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.language.impl.psi.impl.source.resolve.graphInference;
+
+import consulo.annotation.component.ComponentScope;
+import consulo.annotation.component.ServiceAPI;
+import consulo.annotation.component.ServiceImpl;
+import consulo.application.util.registry.Registry;
+import consulo.ide.ServiceManager;
+import consulo.java.language.impl.util.ExportableProfile;
+import consulo.language.psi.PsiElement;
+import consulo.language.psi.PsiFile;
+import consulo.util.lang.StringUtil;
+import consulo.virtualFileSystem.VirtualFile;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.inject.Singleton;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static consulo.java.language.impl.util.ProfileJsonUtil.writeField;
+
+/**
+ * Collects per-call statistics of graph inference (sessions, inference variables, bounds, incorporation rounds
+ * and time spent in reduction and incorporation) while the {@value #PROFILE_ENABLED} registry key is set,
+ * so calls which are pathological for the inference can be found after highlighting the worst files. The collected profile
+ * can be exported as JSON.
+ */
+@Singleton
+@ServiceAPI(ComponentScope.APPLICATION)
+@ServiceImpl
+public class InferenceProfile implements ExportableProfile {
+  private static final String PROFILE_ENABLED = "java.inference.profile";
+
+  // file path + call offset -> statistics of its last top-level inference
+  private final Map<String, CallProfile> myProfiles = new ConcurrentHashMap<>();
+
+  @Nonnull
+  public static InferenceProfile getInstance() {
+    return ServiceManager.getService(InferenceProfile.class);
+  }
+
+  /**
+   * @return profile to record the inference to, or null if profiling is disabled
+   */
+  @Nullable
+  static InferenceProfile getInstanceIfEnabled() {
+    return Registry.is(PROFILE_ENABLED, false) ? getInstance() : null;
+  }
+
+  void record(@Nullable PsiElement context, @Nonnull InferenceBudget budget, long totalTime) {
+    CallProfile profile = new CallProfile(budget, totalTime);
+    PsiFile file = context == null || !context.isValid() ? null : context.getContainingFile();
+    VirtualFile virtualFile = file == null ? null : file.getVirtualFile();
+    profile.myFile = virtualFile == null ? String.valueOf(file) : virtualFile.getPath();
+    profile.myCall = file == null ? String.valueOf(context) : context.getTextRange().getStartOffset() + ": " + StringUtil.first(context.getText(), 80, true);
+    myProfiles.merge(profile.myFile + ':' + profile.myCall, profile, (previous, current) -> {
+      current.myRuns = previous.myRuns + 1;
+      return current;
+    });
+  }
+
+  @Override
+  public void reset() {
+    myProfiles.clear();
+  }
+
+  /**
+   * @return hit and miss counts of the inference results shared between the calls of the same shape
+   */
+  @Nonnull
+  @Override
+  public String getSummary() {
+    return InferenceResultCache.getStatistics();
+  }
+
+  /**
+   * Writes the profile as a JSON array of per-call objects, the slowest calls first.
+   */
+  @Override
+  public void exportJson(@Nonnull Writer writer) throws IOException {
+    List<CallProfile> profiles = new ArrayList<>(myProfiles.values());
+    profiles.sort(Comparator.comparingLong((CallProfile profile) -> profile.myTotalTime).reversed());
+    writer.write("[\n");
+    for (int i = 0; i < profiles.size(); i++) {
+      CallProfile profile = profiles.get(i);
+      writer.write("  {");
+      writeField(writer, "file", profile.myFile, true);
+      writeField(writer, "call", profile.myCall, true);
+      writeField(writer, "runs", profile.myRuns, true);
+      writeField(writer, "budgetExceeded", profile.myExceeded, true);
+      writeField(writer, "sessions", profile.mySessions, true);
+      writeField(writer, "variables", profile.myVariables, true);
+      writeField(writer, "bounds", profile.myBounds, true);
+      writeField(writer, "iterations", profile.myIterations, true);
+      writeField(writer, "reduceNanos", profile.myReduceTime, true);
+      writeField(writer, "incorporateNanos", profile.myIncorporateTime, true);
+      writeField(writer, "resolveNanos", profile.myResolveTime, true);
+      writeField(writer, "totalNanos", profile.myTotalTime, false);
+      writer.write(i == profiles.size() - 1 ? "}\n" : "},\n");
+    }
+    writer.write("]\n");
+  }
+
+  /**
+   * Statistics of a single top-level inference. Variables and bounds are summed over all its sessions,
+   * resolution time includes everything but reduction and incorporation.
+   */
+  private static final class CallProfile {
+    private String myFile;
+    private String myCall;
+    private int myRuns = 1;
+    private final boolean myExceeded;
+    private final int mySessions;
+    private final int myVariables;
+    private final int myBounds;
+    private final int myIterations;
+    private final long myReduceTime;
+    private final long myIncorporateTime;
+    private final long myResolveTime;
+    private final long myTotalTime;
+
+    private CallProfile(@Nonnull InferenceBudget budget, long totalTime) {
+      myExceeded = budget.isExceeded();
+      mySessions = budget.mySessions;
+      myVariables = budget.myVariables;
+      myBounds = budget.myBounds;
+      myIterations = budget.myIterations;
+      myReduceTime = budget.myReduceTime;
+      myIncorporateTime = budget.myIncorporateTime;
+      myResolveTime = Math.max(0, totalTime - budget.myReduceTime - budget.myIncorporateTime);
+      myTotalTime = totalTime;
+    }
+  }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2000-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.language.impl.psi.impl.source.resolve.graphInference;
+
+import com.intellij.java.language.LanguageLevel;
+import com.intellij.java.language.psi.*;
+import com.intellij.java.language.psi.impl.source.resolve.ParameterTypeInferencePolicy;
+import com.intellij.java.language.psi.impl.source.resolve.graphInference.PsiPolyExpressionUtil;
+import com.intellij.java.language.psi.infos.MethodCandidateInfo;
+import com.intellij.java.language.psi.util.PsiUtil;
+import consulo.application.util.CachedValueProvider;
+import consulo.application.util.CachedValuesManager;
+import consulo.application.util.registry.Registry;
+import consulo.language.psi.PsiElement;
+import consulo.language.psi.PsiFile;
+import consulo.language.psi.PsiModificationTracker;
+import consulo.project.Project;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Results of inference for standalone generic calls, shared between the structurally identical calls of a file
+ * until the next PSI modification. Disabled by default ({@code java.inference.call.cache}) until the hit rate reported by
+ * {@link #getStatistics()} justifies it.
+ * <p>
+ * Only calls which are not poly expressions and whose arguments are not poly expressions are cached: their inference
+ * doesn't depend on the target type or on the argument expressions, just on the method, the site substitutor
+ * and the argument types, which are the cache key together with the containing file: the inferred types are resolved
+ * in the scope of the call site, so they are not reused by calls of other files. Results and argument types mentioning types bound to a particular place
+ * (captured wildcards, synthetic type parameters) are never cached.
+ * <p>
+ * So the cache doesn't cover stream and collector chains: their calls are poly expressions or take lambdas and method
+ * references, and go through the top level session inference as before. Such calls are rejected by syntactic checks before
+ * any argument type is computed, and are counted separately in {@link #getStatistics()}.
+ */
+final class InferenceResultCache {
+  private static final String ENABLED_KEY = "java.inference.call.cache";
+  private static final int MAX_SIZE = 10000;
+
+  private static final AtomicLong ourHits = new AtomicLong();
+  private static final AtomicLong ourMisses = new AtomicLong();
+  private static final AtomicLong ourSkipped = new AtomicLong();
+
+  private final Map<CallShape, CachedResult> myResults = new ConcurrentHashMap<>();
+
+  private InferenceResultCache() {
+  }
+
+  @Nonnull
+  private static InferenceResultCache getInstance(@Nonnull Project project) {
+    return CachedValuesManager.getManager(project).getCachedValue(project, () ->
+      CachedValueProvider.Result.create(new InferenceResultCache(), PsiModificationTracker.MODIFICATION_COUNT));
+  }
+
+  @Nonnull
+  static PsiSubstitutor infer(@Nonnull PsiTypeParameter[] typeParameters,
+                              @Nonnull PsiExpression[] arguments,
+                              @Nonnull PsiSubstitutor partialSubstitutor,
+                              @Nonnull PsiElement parent,
+                              @Nonnull ParameterTypeInferencePolicy policy,
+                              @Nonnull Supplier<PsiSubstitutor> inference) {
+    if (!Registry.is(ENABLED_KEY, false)) {
+      return inference.get();
+    }
+    CallShape shape = getShape(typeParameters, arguments, partialSubstitutor, parent, policy);
+    if (shape == null) {
+      ourSkipped.incrementAndGet();
+      return inference.get();
+    }
+
+    MethodCandidateInfo.CurrentCandidateProperties properties = MethodCandidateInfo.getCurrentMethod(((PsiCall)parent).getArgumentList());
+    InferenceResultCache cache = getInstance(parent.getProject());
+    CachedResult cached = cache.myResults.get(shape);
+    if (cached != null) {
+      ourHits.incrementAndGet();
+      if (cached.myError != null) {
+        properties.getInfo().setInferenceError(cached.myError);
+      }
+      InferenceSession.setUncheckedConversionPerformed(parent, cached.myErased);
+      return cached.mySubstitutor;
+    }
+
+    ourMisses.incrementAndGet();
+    String previousError = properties.getInfo().getInferenceErrorMessage();
+    PsiSubstitutor substitutor = inference.get();
+    String error = properties.getInfo().getInferenceErrorMessage();
+    if (error == previousError) {
+      error = null;
+    }
+    if (cache.myResults.size() < MAX_SIZE && !InferenceBudget.isBudgetError(error) && isContextFree(substitutor)) {
+      cache.myResults.putIfAbsent(shape, new CachedResult(substitutor, error, InferenceSession.wasUncheckedConversionPerformed(parent)));
+    }
+    return substitutor;
+  }
+
+  @Nullable
+  private static CallShape getShape(@Nonnull PsiTypeParameter[] typeParameters,
+                                    @Nonnull PsiExpression[] arguments,
+                                    @Nonnull PsiSubstitutor partialSubstitutor,
+                                    @Nonnull PsiElement parent,
+                                    @Nonnull ParameterTypeInferencePolicy policy) {
+    if (!(parent instanceof PsiCallExpression) || PsiPolyExpressionUtil.isPolyExpression((PsiExpression)parent)) {
+      return null;
+    }
+    MethodCandidateInfo.CurrentCandidateProperties properties = MethodCandidateInfo.getCurrentMethod(((PsiCall)parent).getArgumentList());
+    if (properties == null) {
+      return null;
+    }
+    PsiExpression[] unwrapped = new PsiExpression[arguments.length];
+    for (int i = 0; i < arguments.length; i++) {
+      PsiExpression argument = PsiUtil.skipParenthesizedExprDown(arguments[i]);
+      if (argument == null || argument instanceof PsiFunctionalExpression || PsiPolyExpressionUtil.isPolyExpression(argument)) {
+        return null;
+      }
+      unwrapped[i] = argument;
+    }
+    PsiType[] argumentTypes = new PsiType[arguments.length];
+    for (int i = 0; i < unwrapped.length; i++) {
+      PsiType type = unwrapped[i].getType();
+      if (type == null || !isContextFree(type)) {
+        return null;
+      }
+      argumentTypes[i] = type;
+    }
+    return new CallShape(parent.getContainingFile(), properties.getMethod(), typeParameters, partialSubstitutor, argumentTypes, policy,
+                         PsiUtil.getLanguageLevel(parent), properties.isVarargs(), properties.isApplicabilityCheck());
+  }
+
+  private static boolean isContextFree(@Nonnull PsiSubstitutor substitutor) {
+    for (PsiType type : substitutor.getSubstitutionMap().values()) {
+      if (type != null && !isContextFree(type)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isContextFree(@Nonnull PsiType type) {
+    if (type instanceof PsiPrimitiveType) {
+      return true;
+    }
+    if (type instanceof PsiArrayType) {
+      return isContextFree(((PsiArrayType)type).getComponentType());
+    }
+    if (type instanceof PsiWildcardType) {
+      PsiType bound = ((PsiWildcardType)type).getBound();
+      return bound == null || isContextFree(bound);
+    }
+    if (type instanceof PsiClassType) {
+      PsiClass aClass = ((PsiClassType)type).resolve();
+      if (aClass == null || aClass instanceof PsiTypeParameter && !aClass.isPhysical()) {
+        return false;
+      }
+      for (PsiType parameter : ((PsiClassType)type).getParameters()) {
+        if (!isContextFree(parameter)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    // captured wildcards, intersections, lambda and method reference types
+    return false;
+  }
+
+  /**
+   * @return hits and misses of the cached calls, and the number of the calls which weren't eligible for caching
+   */
+  @Nonnull
+  static String getStatistics() {
+    long hits = ourHits.get();
+    long misses = ourMisses.get();
+    long total = hits + misses;
+    return "inference cache hits: " + hits + ", misses: " + misses + (total == 0 ? "" : ", hit rate: " + hits * 100 / total + "%") +
+           ", not cacheable calls: " + ourSkipped.get();
+  }
+
+  private static final class CachedResult {
+    private final PsiSubstitutor mySubstitutor;
+    @Nullable
+    private final String myError;
+    private final boolean myErased;
+
+    private CachedResult(@Nonnull PsiSubstitutor substitutor, @Nullable String error, boolean erased) {
+      mySubstitutor = substitutor;
+      myError = error;
+      myErased = erased;
+    }
+  }
+
+  private static final class CallShape {
+    private final PsiFile myFile;
+    private final PsiMethod myMethod;
+    private final PsiTypeParameter[] myTypeParameters;
+    private final PsiSubstitutor mySiteSubstitutor;
+    private final PsiType[] myArgumentTypes;
+    private final ParameterTypeInferencePolicy myPolicy;
+    private final LanguageLevel myLanguageLevel;
+    private final boolean myVarargs;
+    private final boolean myApplicabilityCheck;
+    private final int myHashCode;
+
+    private CallShape(@Nonnull PsiFile file,
+                      @Nonnull PsiMethod method,
+                      @Nonnull PsiTypeParameter[] typeParameters,
+                      @Nonnull PsiSubstitutor siteSubstitutor,
+                      @Nonnull PsiType[] argumentTypes,
+                      @Nonnull ParameterTypeInferencePolicy policy,
+                      @Nonnull LanguageLevel languageLevel,
+                      boolean varargs,
+                      boolean applicabilityCheck) {
+      myFile = file;
+      myMethod = method;
+      myTypeParameters = typeParameters;
+      mySiteSubstitutor = siteSubstitutor;
+      myArgumentTypes = argumentTypes;
+      myPolicy = policy;
+      myLanguageLevel = languageLevel;
+      myVarargs = varargs;
+      myApplicabilityCheck = applicabilityCheck;
+      myHashCode = (method.hashCode() * 31 + Arrays.hashCode(argumentTypes)) * 31 + siteSubstitutor.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof CallShape)) return false;
+      CallShape shape = (CallShape)o;
+      return myHashCode == shape.myHashCode &&
+             myVarargs == shape.myVarargs &&
+             myApplicabilityCheck == shape.myApplicabilityCheck &&
+             myMethod.equals(shape.myMethod) &&
+             myFile.equals(shape.myFile) &&
+             myPolicy == shape.myPolicy &&
+             myLanguageLevel == shape.myLanguageLevel &&
+             Arrays.equals(myTypeParameters, shape.myTypeParameters) &&
+             Arrays.equals(myArgumentTypes, shape.myArgumentTypes) &&
+             mySiteSubstitutor.equals(shape.mySiteSubstitutor);
+    }
+
+    @Override
+    public int hashCode() {
+      return myHashCode;
+    }
+  }
+}
@@ -106,6 +106,7 @@ public class InferenceSession {
 
   private boolean myErased;
   private boolean myCheckApplicabilityPhase = true;
+  private boolean myBudgetExceeded;
 
   public final InferenceIncorporationPhase myIncorporationPhase = new InferenceIncorporationPhase(this);
 
@@ -384,11 +385,22 @@ public class InferenceSession {
                                                  @Nullable PsiElement parent,
                                                  @Nullable MethodCandidateInfo.CurrentCandidateProperties properties,
                                                  @Nonnull PsiSubstitutor initialSubstitutor) {
+    final InferenceBudget budget = InferenceBudget.enter(myContext != null ? myContext : parent);
     try {
       doInfer(parameters, args, parent, properties, initialSubstitutor);
       return prepareSubstitution();
     }
     finally {
+      if (budget.isProfiling()) {
+        budget.myVariables += myInferenceVariables.size();
+        for (InferenceVariable variable : myInferenceVariables) {
+          for (InferenceBound bound : InferenceBound.values()) {
+            budget.myBounds += variable.getBounds(bound).size();
+          }
+        }
+      }
+      budget.exit();
+
       for (ConstraintFormula formula : myConstraintsCopy) {
         if (formula instanceof InputOutputConstraintFormula) {
           LambdaUtil.getFunctionalTypeMap().remove(((InputOutputConstraintFormula)formula).getExpression());
@@ -740,6 +752,11 @@ public class InferenceSession {
         PsiType instantiation = inferenceVariable.getInstantiation();
         //failed inference
         if (instantiation == PsiType.NULL) {
+          if (myBudgetExceeded) {
+            //inference was stopped: leave the variable raw
+            mySiteSubstitutor = mySiteSubstitutor.put(typeParameter, null);
+            continue;
+          }
           if (!foundErrorMessage) {
             foundErrorMessage = checkBoundsConsistency(mySiteSubstitutor, inferenceVariable) == PsiType.NULL;
           }
@@ -1170,13 +1187,31 @@ public class InferenceSession {
   }
 
   public boolean repeatInferencePhases() {
+    final InferenceBudget budget = InferenceBudget.getCurrent();
+    final boolean profiling = budget != null && budget.isProfiling();
     do {
+      if (budget != null && !budget.step()) {
+        myBudgetExceeded = true;
+        registerIncompatibleErrorMessage(budget.getErrorMessage());
+        return false;
+      }
+
+      long start = profiling ? System.nanoTime() : 0;
       if (!reduceConstraints()) {
         //inference error occurred
         return false;
       }
 
-      if (!myIncorporationPhase.incorporate()) {
+      if (profiling) {
+        long reduced = System.nanoTime();
+        budget.myReduceTime += reduced - start;
+        start = reduced;
+      }
+      final boolean incorporated = myIncorporationPhase.incorporate();
+      if (profiling) {
+        budget.myIncorporateTime += System.nanoTime() - start;
+      }
+      if (!incorporated) {
         return false;
       }
     }
@@ -2163,6 +2198,10 @@ public class InferenceSession {
     return erased != null && erased.booleanValue();
   }
 
+  static void setUncheckedConversionPerformed(@Nonnull PsiElement call, boolean erased) {
+    call.putUserData(ERASED, erased);
+  }
+
   public PsiElement getContext() {
     return myContext;
   }
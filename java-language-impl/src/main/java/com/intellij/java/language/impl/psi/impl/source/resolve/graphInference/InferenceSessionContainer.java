@@ -134,9 +134,11 @@ public class InferenceSessionContainer {
       }
     }
 
-    final InferenceSession inferenceSession = new InferenceSession(typeParameters, partialSubstitutor, parent.getManager(), parent, policy);
-    inferenceSession.initExpressionConstraints(parameters, arguments, parent);
-    return inferenceSession.infer(parameters, arguments, parent);
+    return InferenceResultCache.infer(typeParameters, arguments, partialSubstitutor, parent, policy, () -> {
+      final InferenceSession inferenceSession = new InferenceSession(typeParameters, partialSubstitutor, parent.getManager(), parent, policy);
+      inferenceSession.initExpressionConstraints(parameters, arguments, parent);
+      return inferenceSession.infer(parameters, arguments, parent);
+    });
   }
 
   private static PsiSubstitutor inferNested(final PsiTypeParameter[] typeParameters,
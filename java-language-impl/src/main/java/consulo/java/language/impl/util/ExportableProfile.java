@@ -0,0 +1,24 @@
+package consulo.java.language.impl.util;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Profile collected by an internal profiling mode, which can be exported as JSON (see {@link ProfileJsonUtil}) and reset.
+ */
+public interface ExportableProfile {
+  void exportJson(@Nonnull Writer writer) throws IOException;
+
+  void reset();
+
+  /**
+   * @return short summary shown along with the exported file, if any
+   */
+  @Nullable
+  default String getSummary() {
+    return null;
+  }
+}
@@ -0,0 +1,54 @@
+package consulo.java.language.impl.util;
+
+import jakarta.annotation.Nonnull;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the fields of the JSON objects exported by {@link ExportableProfile}s.
+ */
+public final class ProfileJsonUtil {
+  private ProfileJsonUtil() {
+  }
+
+  /**
+   * Writes {@code "name": value}, quoting the value if it's a string.
+   *
+   * @param hasNext whether the object has more fields, so a separator must follow
+   */
+  public static void writeField(@Nonnull Writer writer, @Nonnull String name, Object value, boolean hasNext) throws IOException {
+    writer.write('"');
+    writer.write(name);
+    writer.write("\": ");
+    if (value instanceof String) {
+      writer.write('"');
+      writer.write(escape((String)value));
+      writer.write('"');
+    }
+    else {
+      writer.write(String.valueOf(value));
+    }
+    if (hasNext) {
+      writer.write(", ");
+    }
+  }
+
+  @Nonnull
+  private static String escape(@Nonnull String value) {
+    StringBuilder builder = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        builder.append('\\').append(c);
+      }
+      else if (c < ' ') {
+        builder.append(String.format("\\u%04x", (int)c));
+      }
+      else {
+        builder.append(c);
+      }
+    }
+    return builder.toString();
+  }
+}
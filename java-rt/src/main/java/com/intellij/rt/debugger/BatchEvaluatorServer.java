@@ -22,6 +22,10 @@
 package com.intellij.rt.debugger;
 
 public class BatchEvaluatorServer {
+  public static final char NULL = 'N';
+  public static final char STRING = 'S';
+  public static final char EXCEPTION = 'E';
+
   Object[] myObjects;
 
   public Object[] evaluate(Object[] objects) {
@@ -37,4 +41,36 @@ public class BatchEvaluatorServer {
     }
     return result;
   }
+
+  /**
+   * Packs toString() results of all the objects into a single array, so the debugger reads them with one request.
+   * For every object there is a tag: {@link #NULL}, {@link #STRING} or {@link #EXCEPTION}; non-null results follow the tag
+   * as their length in two chars and the chars of the string or of the thrown exception class name.
+   * Strings longer than maxLength are truncated, non-positive maxLength means no limit.
+   */
+  public char[] evaluatePacked(Object[] objects, int maxLength) {
+    myObjects = objects;
+    StringBuilder result = new StringBuilder();
+    for (int idx = 0; idx < objects.length; idx++) {
+      String text;
+      char tag;
+      try {
+        text = objects[idx].toString();
+        tag = text == null ? NULL : STRING;
+      }
+      catch (Throwable e) {
+        text = e.getClass().getName();
+        tag = EXCEPTION;
+      }
+      result.append(tag);
+      if (text != null) {
+        int length = maxLength > 0 ? Math.min(text.length(), maxLength) : text.length();
+        result.append((char)(length >>> 16)).append((char)length);
+        result.append(text, 0, length);
+      }
+    }
+    char[] chars = new char[result.length()];
+    result.getChars(0, chars.length, chars, 0);
+    return chars;
+  }
 }
@@ -31,6 +31,7 @@ import com.intellij.java.language.psi.*;
 import com.intellij.java.language.psi.javadoc.PsiDocComment;
 import com.intellij.java.language.psi.javadoc.PsiDocTag;
 import consulo.application.util.UserDataCache;
+import consulo.application.util.registry.Registry;
 import consulo.disposer.Disposer;
 import consulo.language.editor.impl.inspection.reference.RefElementImpl;
 import consulo.language.editor.impl.inspection.reference.RefManagerImpl;
@@ -62,6 +63,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 /**
@@ -84,6 +86,8 @@ public class RefJavaManagerImpl extends RefJavaManager
 	private final RefManagerImpl myRefManager;
 	private PsiElementVisitor myProjectIterator;
 	private EntryPointsManager myEntryPointsManager;
+	private RefResolvePrefetcher myPrefetcher;
+	private Map<PsiElement, PsiElement> myPrefetchedTargets;
 
 	public RefJavaManagerImpl(@Nonnull RefManagerImpl manager)
 	{
@@ -303,6 +307,13 @@ public class RefJavaManagerImpl extends RefJavaManager
 		myServlet = null;
 		myDefaultPackage = null;
 		myProjectIterator = null;
+		if(myPrefetcher != null)
+		{
+			myPrefetcher.stop();
+			LOG.info(myPrefetcher.getStatistics());
+			myPrefetcher = null;
+		}
+		myPrefetchedTargets = null;
 	}
 
 	@Override
@@ -424,9 +435,43 @@ public class RefJavaManagerImpl extends RefJavaManager
 		{
 			myProjectIterator = new MyJavaElementVisitor();
 		}
+		if(element instanceof PsiFile)
+		{
+			if(myPrefetcher == null && myRefManager.getScope() != null && Registry.is(RefResolvePrefetcher.ENABLED_KEY, true))
+			{
+				myPrefetcher = new RefResolvePrefetcher(myRefManager.getProject(), myRefManager.getScope());
+				myPrefetcher.start();
+			}
+			myPrefetchedTargets = myPrefetcher != null ? myPrefetcher.fileStarted((PsiFile) element) : null;
+		}
 		element.accept(myProjectIterator);
 	}
 
+	/**
+	 * @return the target of a reference expression or the constructor of a new expression or an enum constant
+	 * resolved in advance for the file being visited, or the result of the resolver if the element hasn't been prefetched
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends PsiElement> T getResolved(@Nonnull PsiElement element, @Nonnull Supplier<T> resolver)
+	{
+		final Map<PsiElement, PsiElement> targets = myPrefetchedTargets;
+		final boolean prefetched = targets != null && targets.containsKey(element);
+		if(myPrefetcher != null)
+		{
+			myPrefetcher.recordLookup(prefetched);
+		}
+		return prefetched ? (T) targets.get(element) : resolver.get();
+	}
+
+	/**
+	 * @return progress and throughput of the parallel reference resolution of the current graph build, null if it isn't running
+	 */
+	@Nullable
+	public String getGraphBuildStatistics()
+	{
+		return myPrefetcher != null ? myPrefetcher.getStatistics() : null;
+	}
+
 	@Override
 	@Nullable
 	public String getGroupName(@Nonnull final RefEntity entity)
@@ -38,6 +38,7 @@ import consulo.language.psi.util.PsiTreeUtil;
 import jakarta.inject.Singleton;
 
 import jakarta.annotation.Nullable;
+import java.util.function.Supplier;
 
 @Singleton
 @ServiceImpl
@@ -57,7 +58,7 @@ public class RefJavaUtilImpl extends RefJavaUtil {
             public void visitReferenceExpression(PsiReferenceExpression expression) {
               visitElement(expression);
 
-              PsiElement psiResolved = expression.resolve();
+              PsiElement psiResolved = resolve(refFrom, expression, expression::resolve);
 
               if (psiResolved instanceof PsiModifierListOwner) {
                 if (isDeprecated(psiResolved)) refFrom.setUsesDeprecatedApi(true);
@@ -78,13 +79,13 @@ public class RefJavaUtilImpl extends RefJavaUtil {
             @Override
             public void visitEnumConstant(PsiEnumConstant enumConstant) {
               super.visitEnumConstant(enumConstant);
-              processNewLikeConstruct(enumConstant.resolveConstructor(), enumConstant.getArgumentList());
+              processNewLikeConstruct(resolve(refFrom, enumConstant, enumConstant::resolveConstructor), enumConstant.getArgumentList());
             }
 
             @Override
             public void visitNewExpression(PsiNewExpression newExpr) {
               super.visitNewExpression(newExpr);
-              PsiMethod psiConstructor = newExpr.resolveConstructor();
+              PsiMethod psiConstructor = resolve(refFrom, newExpr, newExpr::resolveConstructor);
               final PsiExpressionList argumentList = newExpr.getArgumentList();
 
               RefMethod refConstructor = processNewLikeConstruct(psiConstructor, argumentList);
@@ -185,6 +186,11 @@ public class RefJavaUtilImpl extends RefJavaUtil {
     }
   }
 
+  private static <T extends PsiElement> T resolve(RefJavaElementImpl refFrom, PsiElement element, Supplier<T> resolver) {
+    final RefJavaManager manager = refFrom.getRefManager().getExtension(RefJavaManager.MANAGER);
+    return manager instanceof RefJavaManagerImpl ? ((RefJavaManagerImpl) manager).getResolved(element, resolver) : resolver.get();
+  }
+
   private void updateRefMethod(PsiElement psiResolved,
                                RefElement refResolved,
                                PsiElement refExpression,
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2000-2009 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.impl.codeInspection.reference;
+
+import com.intellij.java.language.psi.PsiEnumConstant;
+import com.intellij.java.language.psi.PsiJavaFile;
+import com.intellij.java.language.psi.PsiNewExpression;
+import com.intellij.java.language.psi.PsiReferenceExpression;
+import consulo.application.ApplicationManager;
+import consulo.application.ReadAction;
+import consulo.application.progress.EmptyProgressIndicator;
+import consulo.application.progress.ProgressIndicator;
+import consulo.application.progress.ProgressManager;
+import consulo.application.util.concurrent.JobLauncher;
+import consulo.component.ProcessCanceledException;
+import consulo.language.editor.scope.AnalysisScope;
+import consulo.language.psi.*;
+import consulo.project.Project;
+import consulo.virtualFileSystem.VirtualFile;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves the reference expressions and the constructor calls of the Java files in the analysis scope on pooled threads,
+ * ahead of the graph builder which visits the files one by one.
+ * Every file is resolved into a buffer of its own, the builder takes the buffer over when it gets to the file,
+ * so the ref graph itself is still changed by the builder thread only.
+ * <p>
+ * The prefetch runs at most {@link #WINDOW} files ahead of the builder, as every buffer keeps the PSI of its file alive.
+ *
+ * @see RefJavaManagerImpl#getResolved
+ */
+class RefResolvePrefetcher
+{
+	static final String ENABLED_KEY = "java.inspection.graph.parallel.resolve";
+	private static final int WINDOW = 256;
+
+	private final Project myProject;
+	private final AnalysisScope myScope;
+	private final ProgressIndicator myIndicator = new EmptyProgressIndicator();
+	private final Map<VirtualFile, Integer> myFileIndices = new ConcurrentHashMap<>();
+	private final Map<VirtualFile, ResolvedFile> myResolvedFiles = new ConcurrentHashMap<>();
+	private final Object myLock = new Object();
+	private volatile int myBuilderPosition = -1;
+
+	private volatile int myTotalFiles = -1;
+	private final AtomicInteger myPrefetchedFiles = new AtomicInteger();
+	private final AtomicInteger myResolvedElements = new AtomicInteger();
+	private final AtomicLong myResolveTime = new AtomicLong();
+	private final AtomicInteger myBuiltFiles = new AtomicInteger();
+	private final AtomicInteger myHits = new AtomicInteger();
+	private final AtomicInteger myMisses = new AtomicInteger();
+	private final long myStartTime = System.currentTimeMillis();
+
+	RefResolvePrefetcher(@Nonnull Project project, @Nonnull AnalysisScope scope)
+	{
+		myProject = project;
+		myScope = scope;
+	}
+
+	void start()
+	{
+		ApplicationManager.getApplication().executeOnPooledThread(() -> {
+			try
+			{
+				ProgressManager.getInstance().runProcess(this::prefetch, myIndicator);
+			}
+			catch(ProcessCanceledException ignored)
+			{
+			}
+		});
+	}
+
+	void stop()
+	{
+		myIndicator.cancel();
+		synchronized(myLock)
+		{
+			myLock.notifyAll();
+		}
+		myResolvedFiles.clear();
+	}
+
+	/**
+	 * Called by the builder when it starts visiting the file.
+	 *
+	 * @return the resolve results of the file, null if the file hasn't been prefetched or has been modified since
+	 */
+	@Nullable
+	Map<PsiElement, PsiElement> fileStarted(@Nonnull PsiFile file)
+	{
+		final VirtualFile virtualFile = file.getVirtualFile();
+		if(virtualFile == null)
+		{
+			return null;
+		}
+		myBuiltFiles.incrementAndGet();
+		final Integer index = myFileIndices.get(virtualFile);
+		if(index != null && index > myBuilderPosition)
+		{
+			synchronized(myLock)
+			{
+				myBuilderPosition = index;
+				myLock.notifyAll();
+			}
+		}
+		final ResolvedFile resolved = myResolvedFiles.remove(virtualFile);
+		if(resolved == null || resolved.myModificationCount != PsiModificationTracker.getInstance(myProject).getModificationCount())
+		{
+			return null;
+		}
+		return resolved.myTargets;
+	}
+
+	void recordLookup(boolean hit)
+	{
+		(hit ? myHits : myMisses).incrementAndGet();
+	}
+
+	@Nonnull
+	String getStatistics()
+	{
+		final long elapsed = Math.max(1, System.currentTimeMillis() - myStartTime);
+		final int prefetched = myPrefetchedFiles.get();
+		return "reference prefetch: " + prefetched + "/" + Math.max(myTotalFiles, 0) + " files, " +
+				myResolvedElements.get() + " elements resolved in " + myResolveTime.get() / 1000000 + " ms of worker time, " +
+				prefetched * 1000L / elapsed + " files/s; builder: " + myBuiltFiles.get() + " files, " +
+				myBuiltFiles.get() * 1000L / elapsed + " files/s, " + myHits.get() + " hits, " + myMisses.get() + " misses";
+	}
+
+	private void prefetch()
+	{
+		final List<VirtualFile> files = new ArrayList<>();
+		myScope.accept(new PsiElementVisitor()
+		{
+			@Override
+			public void visitFile(PsiFile file)
+			{
+				final VirtualFile virtualFile = file.getVirtualFile();
+				if(file instanceof PsiJavaFile && virtualFile != null)
+				{
+					myFileIndices.put(virtualFile, files.size());
+					files.add(virtualFile);
+				}
+			}
+		});
+		myTotalFiles = files.size();
+
+		for(int start = 0; start < files.size(); start += WINDOW)
+		{
+			awaitBuilder(start - WINDOW);
+			final List<VirtualFile> window = files.subList(start, Math.min(start + WINDOW, files.size()));
+			if(!JobLauncher.getInstance().invokeConcurrentlyUnderProgress(window, myIndicator, file -> resolve(file)))
+			{
+				return;
+			}
+		}
+	}
+
+	private void awaitBuilder(int position)
+	{
+		synchronized(myLock)
+		{
+			while(myBuilderPosition < position)
+			{
+				myIndicator.checkCanceled();
+				try
+				{
+					myLock.wait(100);
+				}
+				catch(InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					throw new ProcessCanceledException();
+				}
+			}
+		}
+	}
+
+	private boolean resolve(@Nonnull VirtualFile file)
+	{
+		if(myFileIndices.get(file) <= myBuilderPosition)
+		{
+			return true;
+		}
+		final long start = System.nanoTime();
+		// the buffer is filled by this worker only and published once complete
+		final ResolvedFile resolved = ReadAction.compute(() -> {
+			final PsiFile psiFile = file.isValid() ? PsiManager.getInstance(myProject).findFile(file) : null;
+			if(!(psiFile instanceof PsiJavaFile))
+			{
+				return null;
+			}
+			final ResolvedFile result = new ResolvedFile(PsiModificationTracker.getInstance(myProject).getModificationCount());
+			psiFile.accept(new PsiRecursiveElementWalkingVisitor()
+			{
+				@Override
+				public void visitElement(PsiElement element)
+				{
+					if(element instanceof PsiReferenceExpression)
+					{
+						result.myTargets.put(element, ((PsiReferenceExpression) element).resolve());
+					}
+					else if(element instanceof PsiNewExpression)
+					{
+						result.myTargets.put(element, ((PsiNewExpression) element).resolveConstructor());
+					}
+					else if(element instanceof PsiEnumConstant)
+					{
+						result.myTargets.put(element, ((PsiEnumConstant) element).resolveConstructor());
+					}
+					super.visitElement(element);
+				}
+			});
+			return result;
+		});
+		if(resolved != null)
+		{
+			myResolvedFiles.put(file, resolved);
+			if(myFileIndices.get(file) <= myBuilderPosition)
+			{
+				// the builder has passed the file meanwhile
+				myResolvedFiles.remove(file);
+			}
+			myResolvedElements.addAndGet(resolved.myTargets.size());
+			myPrefetchedFiles.incrementAndGet();
+		}
+		myResolveTime.addAndGet(System.nanoTime() - start);
+		return true;
+	}
+
+	private static final class ResolvedFile
+	{
+		private final long myModificationCount;
+		// null targets are kept, they tell unresolved elements from the ones not prefetched
+		private final Map<PsiElement, PsiElement> myTargets = new HashMap<>();
+
+		private ResolvedFile(long modificationCount)
+		{
+			myModificationCount = modificationCount;
+		}
+	}
+}
@@ -18,8 +18,12 @@ package com.intellij.java.impl.cyclicDependencies;
 import com.intellij.java.language.psi.JavaPsiFacade;
 import com.intellij.java.language.psi.PsiJavaFile;
 import com.intellij.java.language.psi.PsiJavaPackage;
+import consulo.application.ApplicationManager;
+import consulo.application.ReadAction;
 import consulo.application.progress.ProgressIndicator;
 import consulo.application.progress.ProgressManager;
+import consulo.application.util.concurrent.JobLauncher;
+import consulo.application.util.function.Processor;
 import consulo.application.util.graph.GraphAlgorithms;
 import consulo.component.ProcessCanceledException;
 import consulo.component.util.graph.CachingSemiGraph;
@@ -35,8 +39,11 @@ import consulo.language.psi.PsiRecursiveElementVisitor;
 import consulo.module.content.ProjectFileIndex;
 import consulo.module.content.ProjectRootManager;
 import consulo.project.Project;
+import consulo.virtualFileSystem.VirtualFile;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * User: anna
@@ -46,12 +53,14 @@ public class CyclicDependenciesBuilder{
   private final Project myProject;
   private final AnalysisScope myScope;
   private final Map<String, PsiJavaPackage> myPackages = new HashMap<String, PsiJavaPackage>();
-  private Graph<PsiJavaPackage> myGraph;
+  // package ids are indices in this list
+  private final List<PsiJavaPackage> myPackageList = new ArrayList<PsiJavaPackage>();
+  private final Map<PsiJavaPackage, Integer> myPackageIds = new HashMap<PsiJavaPackage, Integer>();
+  // package id -> ids of the packages it depends on
+  private final List<BitSet> myPackageDependencies = new ArrayList<BitSet>();
   private final Map<PsiJavaPackage, Map<PsiJavaPackage, Set<PsiFile>>> myFilesInDependentPackages = new HashMap<PsiJavaPackage, Map<PsiJavaPackage, Set<PsiFile>>>();
   private final Map<PsiJavaPackage, Map<PsiJavaPackage, Set<PsiFile>>> myBackwardFilesInDependentPackages = new HashMap<PsiJavaPackage, Map<PsiJavaPackage, Set<PsiFile>>>();
-  private final Map<PsiJavaPackage, Set<PsiJavaPackage>> myPackageDependencies = new HashMap<PsiJavaPackage, Set<PsiJavaPackage>>();
   private HashMap<PsiJavaPackage, Set<List<PsiJavaPackage>>> myCyclicDependencies = new HashMap<PsiJavaPackage, Set<List<PsiJavaPackage>>>();
-  private int myFileCount = 0;
   private final ForwardDependenciesBuilder myForwardBuilder;
 
   private String myRootNodeNameInUsageView;
@@ -92,56 +101,69 @@ public class CyclicDependenciesBuilder{
 
   public void analyze() {
     final ProjectFileIndex projectFileIndex = ProjectRootManager.getInstance(getProject()).getFileIndex();
+    final List<VirtualFile> files = new ArrayList<VirtualFile>();
     getScope().accept(new PsiRecursiveElementVisitor() {
       @Override public void visitFile(PsiFile file) {
         if (file instanceof PsiJavaFile) {
-          PsiJavaFile psiJavaFile = (PsiJavaFile)file;
-          if (getScope().contains(psiJavaFile)) {
-            final PsiJavaPackage aPackage = findPackage(psiJavaFile.getPackageName());
-            if (aPackage != null) {
-              myPackages.put(psiJavaFile.getPackageName(), aPackage);
-            }
+          final VirtualFile virtualFile = file.getVirtualFile();
+          if (virtualFile != null) {
+            files.add(virtualFile);
           }
-          final Set<PsiJavaPackage> packs = getPackageHierarhy(psiJavaFile.getPackageName());
-          final ForwardDependenciesBuilder builder = new ForwardDependenciesBuilder(getProject(), new AnalysisScope(psiJavaFile));
-          builder.setTotalFileCount(getScope().getFileCount());
-          builder.setInitialFileCount(++myFileCount);
-          builder.analyze();
-          final Set<PsiFile> psiFiles = builder.getDependencies().get(psiJavaFile);
-          if (psiFiles == null) return;
-          for (PsiJavaPackage pack : packs) {
-            Set<PsiJavaPackage> pack2Packages = myPackageDependencies.get(pack);
-            if (pack2Packages == null) {
-              pack2Packages = new HashSet<PsiJavaPackage>();
-              myPackageDependencies.put(pack, pack2Packages);
+        }
+      }
+    });
+
+    final Map<VirtualFile, VirtualFile[]> fileDependencies = collectDependencies(files);
+
+    final PsiManager psiManager = PsiManager.getInstance(getProject());
+    for (final VirtualFile file : files) {
+      ProgressManager.checkCanceled();
+      final VirtualFile[] dependencies = fileDependencies.get(file);
+      if (dependencies == null) {
+        continue;
+      }
+      ReadAction.run(() -> {
+        final PsiFile javaFile = file.isValid() ? psiManager.findFile(file) : null;
+        if (!(javaFile instanceof PsiJavaFile)) {
+          return;
+        }
+        final PsiJavaFile psiJavaFile = (PsiJavaFile)javaFile;
+        if (getScope().contains(psiJavaFile)) {
+          final PsiJavaPackage aPackage = findPackage(psiJavaFile.getPackageName());
+          if (aPackage != null) {
+            myPackages.put(psiJavaFile.getPackageName(), aPackage);
+          }
+        }
+        final Set<PsiJavaPackage> packs = getPackageHierarhy(psiJavaFile.getPackageName());
+        for (PsiJavaPackage pack : packs) {
+          final BitSet pack2Packages = myPackageDependencies.get(getPackageId(pack));
+          for (VirtualFile dependency : dependencies) {
+            final PsiFile psiFile = dependency.isValid() ? psiManager.findFile(dependency) : null;
+            if (!(psiFile instanceof PsiJavaFile) ||
+                !projectFileIndex.isInSourceContent(dependency) ||
+                !getScope().contains(psiFile)) {
+              continue;
             }
-            for (PsiFile psiFile : psiFiles) {
-              if (!(psiFile instanceof PsiJavaFile) ||
-                  !projectFileIndex.isInSourceContent(psiFile.getVirtualFile()) ||
-                  !getScope().contains(psiFile)) {
-                continue;
-              }
-
-              // construct dependent packages
-              final String packageName = ((PsiJavaFile)psiFile).getPackageName();
-              //do not depend on parent packages
-              if (packageName.startsWith(pack.getQualifiedName())) {
-                continue;
-              }
-              final PsiJavaPackage depPackage = findPackage(packageName);
-              if (depPackage == null) { //not from analyze scope
-                continue;
-              }
-              pack2Packages.add(depPackage);
-
-              constractFilesInDependenciesPackagesMap(pack, depPackage, psiFile, myFilesInDependentPackages);
-              constractFilesInDependenciesPackagesMap(depPackage, pack, psiJavaFile, myBackwardFilesInDependentPackages);
-              constractWholeDependenciesMap(psiJavaFile, psiFile);
+
+            // construct dependent packages
+            final String packageName = ((PsiJavaFile)psiFile).getPackageName();
+            //do not depend on parent packages
+            if (packageName.startsWith(pack.getQualifiedName())) {
+              continue;
+            }
+            final PsiJavaPackage depPackage = findPackage(packageName);
+            if (depPackage == null) { //not from analyze scope
+              continue;
             }
+            pack2Packages.set(getPackageId(depPackage));
+
+            constractFilesInDependenciesPackagesMap(pack, depPackage, psiFile, myFilesInDependentPackages);
+            constractFilesInDependenciesPackagesMap(depPackage, pack, psiJavaFile, myBackwardFilesInDependentPackages);
+            constractWholeDependenciesMap(psiJavaFile, psiFile);
           }
         }
-      }
-    });
+      });
+    }
     ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
     if (indicator != null) {
       if (indicator.isCanceled()) {
@@ -154,6 +176,51 @@ public class CyclicDependenciesBuilder{
     myCyclicDependencies = getCycles(myPackages.values());
   }
 
+  /**
+   * Extracts dependencies of the files in parallel, the files not modified since the previous analysis are taken from the cache
+   */
+  private Map<VirtualFile, VirtualFile[]> collectDependencies(final List<VirtualFile> files) {
+    final FileDependencyCache cache = FileDependencyCache.getInstance(getProject());
+    cache.dropInvalidFiles();
+    final PsiManager psiManager = PsiManager.getInstance(getProject());
+    final Map<VirtualFile, VirtualFile[]> result = new ConcurrentHashMap<VirtualFile, VirtualFile[]>();
+    final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+    final AtomicInteger processed = new AtomicInteger();
+    final Processor<VirtualFile> processor = file -> {
+      ReadAction.run(() -> {
+        final PsiFile psiFile = file.isValid() ? psiManager.findFile(file) : null;
+        if (psiFile instanceof PsiJavaFile) {
+          result.put(file, cache.getDependencies((PsiJavaFile)psiFile));
+        }
+      });
+      if (indicator != null) {
+        indicator.setFraction((double)processed.incrementAndGet() / files.size());
+      }
+      return true;
+    };
+    if (ApplicationManager.getApplication().isReadAccessAllowed()) {
+      // workers take read actions themselves, which would deadlock with a pending write action if the caller held one
+      for (VirtualFile file : files) {
+        processor.process(file);
+      }
+    }
+    else if (!JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, indicator, file -> processor.process(file))) {
+      throw new ProcessCanceledException();
+    }
+    return result;
+  }
+
+  private int getPackageId(PsiJavaPackage aPackage) {
+    Integer id = myPackageIds.get(aPackage);
+    if (id == null) {
+      id = myPackageList.size();
+      myPackageIds.put(aPackage, id);
+      myPackageList.add(aPackage);
+      myPackageDependencies.add(new BitSet());
+    }
+    return id;
+  }
+
   private void constractFilesInDependenciesPackagesMap(final PsiJavaPackage pack,
                                                        final PsiJavaPackage depPackage,
                                                        final PsiFile file,
@@ -211,19 +278,42 @@ public class CyclicDependenciesBuilder{
     return myCyclicDependencies;
   }
 
+  /**
+   * Only the packages of non-trivial strongly connected components of the package graph can be in cycles,
+   * and all their cycles are inside the component, so cycles are enumerated just for those packages over their components.
+   */
   public HashMap<PsiJavaPackage, Set<List<PsiJavaPackage>>> getCycles(Collection<PsiJavaPackage> packages) {
-    if (myGraph == null){
-      myGraph = buildGraph();
+    for (PsiJavaPackage aPackage : getAllScopePackages().values()) {
+      getPackageId(aPackage);
     }
+    final int[][] edges = new int[myPackageList.size()][];
+    for (int i = 0; i < edges.length; i++) {
+      edges[i] = myPackageDependencies.get(i).stream().toArray();
+    }
+    final int[] components = CyclicDependenciesUtil.findStronglyConnectedComponents(edges);
+    final int[] componentSizes = new int[edges.length];
+    for (int component : components) {
+      componentSizes[component]++;
+    }
+
+    final Map<Integer, Graph<PsiJavaPackage>> componentGraphs = new HashMap<Integer, Graph<PsiJavaPackage>>();
     final HashMap<PsiJavaPackage, Set<List<PsiJavaPackage>>> result = new HashMap<PsiJavaPackage, Set<List<PsiJavaPackage>>>();
-    for (Iterator<PsiJavaPackage> iterator = packages.iterator(); iterator.hasNext();) {
-      PsiJavaPackage psiPackage = iterator.next();
-        Set<List<PsiJavaPackage>> paths2Pack = result.get(psiPackage);
-        if (paths2Pack == null) {
-          paths2Pack = new HashSet<List<PsiJavaPackage>>();
-          result.put(psiPackage, paths2Pack);
-        }
-        paths2Pack.addAll(GraphAlgorithms.getInstance().findCycles(myGraph, psiPackage));
+    for (PsiJavaPackage psiPackage : packages) {
+      Set<List<PsiJavaPackage>> paths2Pack = result.get(psiPackage);
+      if (paths2Pack == null) {
+        paths2Pack = new HashSet<List<PsiJavaPackage>>();
+        result.put(psiPackage, paths2Pack);
+      }
+      final Integer id = myPackageIds.get(psiPackage);
+      if (id == null || componentSizes[components[id]] < 2) {
+        continue;
+      }
+      Graph<PsiJavaPackage> graph = componentGraphs.get(components[id]);
+      if (graph == null) {
+        graph = buildComponentGraph(components, components[id]);
+        componentGraphs.put(components[id], graph);
+      }
+      paths2Pack.addAll(GraphAlgorithms.getInstance().findCycles(graph, psiPackage));
     }
     return result;
   }
@@ -247,21 +337,29 @@ public class CyclicDependenciesBuilder{
   }
 
 
-  private Graph<PsiJavaPackage> buildGraph() {
-    final Graph<PsiJavaPackage> graph = GraphGenerator.create(CachingSemiGraph.create(new GraphGenerator.SemiGraph<PsiJavaPackage>() {
+  private Graph<PsiJavaPackage> buildComponentGraph(final int[] components, final int component) {
+    final List<PsiJavaPackage> nodes = new ArrayList<PsiJavaPackage>();
+    for (int i = 0; i < components.length; i++) {
+      if (components[i] == component) {
+        nodes.add(myPackageList.get(i));
+      }
+    }
+    return GraphGenerator.create(CachingSemiGraph.create(new GraphGenerator.SemiGraph<PsiJavaPackage>() {
       public Collection<PsiJavaPackage> getNodes() {
-        return getAllScopePackages().values();
+        return nodes;
       }
 
       public Iterator<PsiJavaPackage> getIn(PsiJavaPackage psiPack) {
-        final Set<PsiJavaPackage> psiPackages = myPackageDependencies.get(psiPack);
-        if (psiPackages == null) {     //for packs without java classes
-          return new HashSet<PsiJavaPackage>().iterator();
+        final List<PsiJavaPackage> dependencies = new ArrayList<PsiJavaPackage>();
+        final BitSet ids = myPackageDependencies.get(myPackageIds.get(psiPack));
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+          if (components[id] == component) {
+            dependencies.add(myPackageList.get(id));
+          }
         }
-        return psiPackages.iterator();
+        return dependencies.iterator();
       }
     }));
-    return graph;
   }
 
   public Set<PsiJavaPackage> getPackageHierarhy(String packageName) {
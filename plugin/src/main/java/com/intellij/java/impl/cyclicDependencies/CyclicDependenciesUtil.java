@@ -47,6 +47,74 @@ public class CyclicDependenciesUtil{
     return chunks;
   }
 
+  /**
+   * Tarjan's strongly connected components algorithm over a graph of int nodes,
+   * iterative so that long dependency chains can't overflow the stack.
+   *
+   * @param edges nodes every node has edges to
+   * @return index of the strongly connected component of every node
+   */
+  public static int[] findStronglyConnectedComponents(int[][] edges) {
+    final int count = edges.length;
+    final int[] index = new int[count];
+    Arrays.fill(index, -1);
+    final int[] lowLink = new int[count];
+    final boolean[] onStack = new boolean[count];
+    final int[] stack = new int[count];
+    int stackSize = 0;
+    final int[] component = new int[count];
+    int componentCount = 0;
+    // emulated recursion: visited node and the next of its edges to follow, per depth
+    final int[] callStack = new int[count];
+    final int[] edgeIndex = new int[count];
+    int nextIndex = 0;
+
+    for (int root = 0; root < count; root++) {
+      if (index[root] != -1) {
+        continue;
+      }
+      int depth = 0;
+      callStack[0] = root;
+      edgeIndex[0] = 0;
+      index[root] = lowLink[root] = nextIndex++;
+      stack[stackSize++] = root;
+      onStack[root] = true;
+      while (depth >= 0) {
+        final int node = callStack[depth];
+        if (edgeIndex[depth] < edges[node].length) {
+          final int next = edges[node][edgeIndex[depth]++];
+          if (index[next] == -1) {
+            index[next] = lowLink[next] = nextIndex++;
+            stack[stackSize++] = next;
+            onStack[next] = true;
+            callStack[++depth] = next;
+            edgeIndex[depth] = 0;
+          }
+          else if (onStack[next]) {
+            lowLink[node] = Math.min(lowLink[node], index[next]);
+          }
+        }
+        else {
+          if (lowLink[node] == index[node]) {
+            int member;
+            do {
+              member = stack[--stackSize];
+              onStack[member] = false;
+              component[member] = componentCount;
+            }
+            while (member != node);
+            componentCount++;
+          }
+          if (--depth >= 0) {
+            final int parent = callStack[depth];
+            lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+          }
+        }
+      }
+    }
+    return component;
+  }
+
 
   public static class Path <Node> {
     private ArrayList<Node> myPath = new ArrayList<Node>();
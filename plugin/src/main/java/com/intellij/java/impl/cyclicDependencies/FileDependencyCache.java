@@ -0,0 +1,132 @@
+/*
+ * Copyright 2000-2009 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.impl.cyclicDependencies;
+
+import com.intellij.java.language.psi.PsiJavaFile;
+import consulo.annotation.component.ComponentScope;
+import consulo.annotation.component.ServiceAPI;
+import consulo.annotation.component.ServiceImpl;
+import consulo.application.ApplicationManager;
+import consulo.application.util.CachedValueProvider;
+import consulo.application.util.CachedValuesManager;
+import consulo.ide.ServiceManager;
+import consulo.ide.impl.idea.packageDependencies.DependenciesBuilder;
+import consulo.language.psi.PsiElement;
+import consulo.language.psi.PsiFile;
+import consulo.language.psi.PsiModificationTracker;
+import consulo.module.content.ProjectFileIndex;
+import consulo.module.content.ProjectRootManager;
+import consulo.project.Project;
+import consulo.project.content.ProjectRootModificationTracker;
+import consulo.virtualFileSystem.VirtualFile;
+import jakarta.annotation.Nonnull;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Java source files every Java file depends on, kept until the file is modified,
+ * so repeated cyclic dependencies analysis only visits the files changed since the previous run.
+ * <p>
+ * A dependency can be retargeted to another class only by a change of the file itself, of the java structure
+ * or of the project roots: an entry is reused while the file stamp is unchanged, and the whole cache is dropped
+ * on java structure and root modifications.
+ */
+@Singleton
+@ServiceAPI(ComponentScope.PROJECT)
+@ServiceImpl
+public class FileDependencyCache {
+  private final Project myProject;
+
+  public static FileDependencyCache getInstance(Project project) {
+    return ServiceManager.getService(project, FileDependencyCache.class);
+  }
+
+  @Inject
+  public FileDependencyCache(Project project) {
+    myProject = project;
+  }
+
+  /**
+   * @return source files of the project the file depends on
+   */
+  @Nonnull
+  public VirtualFile[] getDependencies(@Nonnull PsiJavaFile file) {
+    ApplicationManager.getApplication().assertReadAccessAllowed();
+    final VirtualFile virtualFile = file.getVirtualFile();
+    if (virtualFile == null) {
+      return computeDependencies(file);
+    }
+    final long stamp = file.getModificationStamp();
+    final Map<VirtualFile, Dependencies> cache = getCache();
+    final Dependencies cached = cache.get(virtualFile);
+    if (cached != null && cached.myStamp == stamp) {
+      return cached.myFiles;
+    }
+    final VirtualFile[] dependencies = computeDependencies(file);
+    cache.put(virtualFile, new Dependencies(stamp, dependencies));
+    return dependencies;
+  }
+
+  public void dropInvalidFiles() {
+    getCache().keySet().removeIf(file -> !file.isValid());
+  }
+
+  public void clear() {
+    getCache().clear();
+  }
+
+  @Nonnull
+  private Map<VirtualFile, Dependencies> getCache() {
+    return CachedValuesManager.getManager(myProject).getCachedValue(myProject, () -> CachedValueProvider.Result.create(
+      new ConcurrentHashMap<VirtualFile, Dependencies>(), PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT,
+      ProjectRootModificationTracker.getInstance(myProject)));
+  }
+
+  @Nonnull
+  private VirtualFile[] computeDependencies(@Nonnull final PsiJavaFile file) {
+    final ProjectFileIndex fileIndex = ProjectRootManager.getInstance(myProject).getFileIndex();
+    final Set<VirtualFile> result = new LinkedHashSet<VirtualFile>();
+    DependenciesBuilder.analyzeFileDependencies(file, new DependenciesBuilder.DependencyProcessor() {
+      @Override
+      public void process(PsiElement place, PsiElement dependency) {
+        final PsiFile dependencyFile = dependency.getContainingFile();
+        if (dependencyFile instanceof PsiJavaFile && dependencyFile.isPhysical() &&
+            dependencyFile.getViewProvider() != file.getViewProvider()) {
+          final VirtualFile dependencyVirtualFile = dependencyFile.getVirtualFile();
+          if (dependencyVirtualFile != null && fileIndex.isInSourceContent(dependencyVirtualFile)) {
+            result.add(dependencyVirtualFile);
+          }
+        }
+      }
+    });
+    return result.toArray(new VirtualFile[result.size()]);
+  }
+
+  private static final class Dependencies {
+    private final long myStamp;
+    private final VirtualFile[] myFiles;
+
+    private Dependencies(long stamp, VirtualFile[] files) {
+      myStamp = stamp;
+      myFiles = files;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2000-2020 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.impl.internal;
+
+import com.intellij.java.analysis.impl.codeInspection.dataFlow.DfaProfile;
+import consulo.java.language.impl.util.ExportableProfile;
+import jakarta.annotation.Nonnull;
+
+/**
+ * Writes the dataflow profile collected while the ide.dfa.profile registry key is set to a JSON file and resets it.
+ */
+public class DumpDataflowProfileAction extends DumpProfileAction {
+  public DumpDataflowProfileAction() {
+    super("dfa-profile", "Dataflow Profile");
+  }
+
+  @Nonnull
+  @Override
+  protected ExportableProfile getProfile() {
+    return DfaProfile.getInstance();
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2000-2020 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.impl.internal;
+
+import consulo.container.boot.ContainerPathManager;
+import consulo.java.language.impl.util.ExportableProfile;
+import consulo.language.editor.CommonDataKeys;
+import consulo.project.Project;
+import consulo.ui.ex.action.AnAction;
+import consulo.ui.ex.action.AnActionEvent;
+import consulo.ui.ex.awt.Messages;
+import jakarta.annotation.Nonnull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Writes a profile collected by an internal profiling mode to a JSON file in the system directory and resets it.
+ */
+public abstract class DumpProfileAction extends AnAction {
+  private final String myFilePrefix;
+  private final String myTitle;
+
+  protected DumpProfileAction(@Nonnull String filePrefix, @Nonnull String title) {
+    myFilePrefix = filePrefix;
+    myTitle = title;
+  }
+
+  @Nonnull
+  protected abstract ExportableProfile getProfile();
+
+  @Override
+  public void actionPerformed(AnActionEvent e) {
+    final Project project = e.getData(CommonDataKeys.PROJECT);
+    File file = new File(ContainerPathManager.get().getSystemPath(), myFilePrefix + "-" + System.currentTimeMillis() + ".json");
+    ExportableProfile profile = getProfile();
+    try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+      profile.exportJson(writer);
+    }
+    catch (IOException ex) {
+      Messages.showErrorDialog(project, "Cannot write " + myTitle.toLowerCase() + ": " + ex.getMessage(), myTitle);
+      return;
+    }
+    profile.reset();
+    String summary = profile.getSummary();
+    Messages.showInfoMessage(project, myTitle + " is written to " + file.getPath() + (summary == null ? "" : "\n" + summary), myTitle);
+  }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2000-2020 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.intellij.java.impl.internal;
+
+import com.intellij.java.language.impl.psi.impl.compiled.ClsMirrorTextCache;
+import consulo.language.editor.CommonDataKeys;
+import consulo.ui.ex.action.AnAction;
+import consulo.ui.ex.action.AnActionEvent;
+import consulo.ui.ex.awt.Messages;
+
+/**
+ * Shows the size and the hit rate of the decompiled class file text cache.
+ */
+public class ShowDecompiledTextCacheStatisticsAction extends AnAction {
+  @Override
+  public void actionPerformed(AnActionEvent e) {
+    Messages.showInfoMessage(e.getData(CommonDataKeys.PROJECT), ClsMirrorTextCache.getInstance().getStatistics(),
+                             "Decompiled Text Cache");
+  }
+}
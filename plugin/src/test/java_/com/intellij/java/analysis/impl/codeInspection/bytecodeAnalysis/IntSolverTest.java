@@ -0,0 +1,64 @@
+package com.intellij.java.analysis.impl.codeInspection.bytecodeAnalysis;
+
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase;
+import consulo.internal.org.objectweb.asm.ClassReader;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that {@link IntSolver} gives the same solutions as {@link Solver} for the equations inferred from JDK classes.
+ * Equations are extracted by {@link ClassDataIndexer}, which needs the application, hence the fixture.
+ */
+public class IntSolverTest extends LightCodeInsightFixtureTestCase {
+  private static final Class<?>[] CORPUS = {
+    String.class, StringBuilder.class, Integer.class, Character.class, Math.class, java.util.Objects.class,
+    java.util.ArrayList.class, java.util.HashMap.class, java.util.TreeMap.class, java.util.Arrays.class,
+    java.util.Collections.class, java.util.Optional.class, java.util.regex.Pattern.class
+  };
+
+  public void testSameSolutionsAsSolver() throws Exception {
+    List<Equation> equations = new ArrayList<>();
+    for (Class<?> aClass : CORPUS) {
+      equations.addAll(loadEquations(aClass));
+    }
+    assertFalse(equations.isEmpty());
+
+    checkSameSolutions(equations, new ELattice<>(Value.Bot, Value.Top), Value.Top);
+    checkSameSolutions(equations, new ELattice<>(Value.NotNull, Value.Top), Value.Top);
+    checkSameSolutions(equations, new ELattice<>(Value.Null, Value.Top), Value.Top);
+    checkSameSolutions(equations, new ELattice<>(Value.Fail, Value.Top), Value.Top);
+    checkSameSolutions(equations, new ELattice<>(Value.Bot, Value.Null), Value.Bot);
+  }
+
+  private static void checkSameSolutions(List<Equation> equations, ELattice<Value> lattice, Value unstableValue) {
+    ValueSolver solver = new Solver(lattice, unstableValue);
+    ValueSolver intSolver = new IntSolver(lattice, unstableValue);
+    for (Equation equation : equations) {
+      solver.addEquation(equation);
+      intSolver.addEquation(equation);
+    }
+    Map<EKey, Value> expected = solver.solve();
+    Map<EKey, Value> actual = intSolver.solve();
+    assertEquals(expected, actual);
+  }
+
+  private static List<Equation> loadEquations(Class<?> aClass) throws Exception {
+    String resource = "/" + aClass.getName().replace('.', '/') + ".class";
+    List<Equation> result = new ArrayList<>();
+    try (InputStream stream = aClass.getResourceAsStream(resource)) {
+      assertNotNull(resource, stream);
+      Map<EKey, Equations> map = ClassDataIndexer.processClass(new ClassReader(stream), resource, false);
+      map.forEach((key, equations) -> {
+        for (DirectionResultPair pair : equations.results) {
+          if (!(pair.result instanceof Effects)) {
+            result.add(new Equation(new EKey(key.member, pair.directionKey, equations.stable, false), pair.result));
+          }
+        }
+      });
+    }
+    return result;
+  }
+}
@@ -0,0 +1,53 @@
+package com.intellij.java.language.impl.psi.impl.source.resolve.graphInference;
+
+import com.intellij.java.language.psi.JavaResolveResult;
+import com.intellij.java.language.psi.PsiMethodCallExpression;
+import com.intellij.java.language.psi.infos.MethodCandidateInfo;
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase;
+import consulo.language.psi.PsiFile;
+import consulo.language.psi.util.PsiTreeUtil;
+
+/**
+ * Checks that a top-level call whose nested sessions spend the {@link InferenceBudget} gets the budget error,
+ * and that the same call is inferred within the default budget.
+ */
+public class InferenceBudgetTest extends LightCodeInsightFixtureTestCase {
+  private static final String TEXT = "import java.util.*;\n" +
+                                     "class Test {\n" +
+                                     "  void foo() {\n" +
+                                     "    List<List<String>> list = Collections.singletonList(Arrays.asList(\"a\", \"b\"));\n" +
+                                     "  }\n" +
+                                     "}";
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      InferenceBudget.setTestLimit(0);
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  public void testDefaultBudget() {
+    assertNull(getInferenceError("Default.java"));
+  }
+
+  public void testBudgetExceeded() {
+    InferenceBudget.setTestLimit(1);
+    String error = getInferenceError("Exceeded.java");
+    assertNotNull(error);
+    assertTrue(error, InferenceBudget.isBudgetError(error));
+  }
+
+  private String getInferenceError(String fileName) {
+    PsiFile file = myFixture.configureByText(fileName, TEXT);
+    PsiMethodCallExpression call = PsiTreeUtil.findChildrenOfType(file, PsiMethodCallExpression.class).stream()
+      .filter(expression -> expression.getMethodExpression().getText().equals("Collections.singletonList"))
+      .findFirst()
+      .orElseThrow(AssertionError::new);
+    JavaResolveResult result = call.resolveMethodGenerics();
+    assertInstanceOf(result, MethodCandidateInfo.class);
+    return ((MethodCandidateInfo)result).getInferenceErrorMessage();
+  }
+}